@@ -0,0 +1,55 @@
+package benchmark;
+
+import engine.CDCL;
+import io.NullIOManager;
+import org.openjdk.jmh.annotations.*;
+import sat.Formula;
+
+import java.util.concurrent.TimeUnit;
+
+// a fresh solver runs until a fixed number of conflicts; below the first reduction, so the
+// time goes to propagation and conflict analysis
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConflictBenchmark
+{
+    private static final int CONFLICTS = 1000;
+
+    @Param({"uf175-012.cnf", "uuf75-01.cnf", "input.txt"})
+    private String instance;
+
+    private Formula formula;
+    private CDCL solver;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Counters
+    {
+        public long conflicts;
+    }
+
+    @Setup(Level.Trial)
+    public void read()
+    {
+        formula = Instances.read(instance);
+    }
+
+    @Setup(Level.Invocation)
+    public void setup()
+    {
+        solver = new CDCL(formula.copy(), new NullIOManager());
+        solver.setConflictLimit(CONFLICTS);
+    }
+
+    @Benchmark
+    public CDCL.Result analyze(Counters counters)
+    {
+        CDCL.Result result = solver.solve();
+        counters.conflicts += solver.getConflicts();
+        return result;
+    }
+}
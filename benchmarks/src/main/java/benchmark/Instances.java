@@ -0,0 +1,24 @@
+package benchmark;
+
+import io.MappedDimacsCNF;
+import sat.Formula;
+
+import java.io.File;
+
+// bundled instances; -Dresources=<dir> when not running from the repository root
+final class Instances
+{
+    private Instances()
+    {
+    }
+
+    static String path(String instance)
+    {
+        return new File(System.getProperty("resources", "resources"), instance).getPath();
+    }
+
+    static Formula read(String instance)
+    {
+        return new MappedDimacsCNF(path(instance)).read();
+    }
+}
@@ -0,0 +1,40 @@
+package benchmark;
+
+import io.DimacsCNF;
+import io.MappedDimacsCNF;
+import org.openjdk.jmh.annotations.*;
+import sat.Formula;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParserBenchmark
+{
+    @Param({"uf20-01.cnf", "uf175-012.cnf", "uuf75-01.cnf"})
+    private String instance;
+
+    private String path;
+
+    @Setup
+    public void setup()
+    {
+        path = Instances.path(instance);
+    }
+
+    @Benchmark
+    public Formula scanner()
+    {
+        return new DimacsCNF(path).read();
+    }
+
+    @Benchmark
+    public Formula mapped()
+    {
+        return new MappedDimacsCNF(path).read();
+    }
+}
@@ -0,0 +1,81 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import sat.Assignment;
+import sat.Formula;
+import util.IntVector;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// replays the same conflict free decisions every time, so only propagation is measured
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PropagationBenchmark
+{
+    @Param({"uf175-012.cnf", "uuf75-01.cnf"})
+    private String instance;
+
+    private Formula formula;
+    private Assignment assignment;
+    private int[] decisions;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Counters
+    {
+        public long propagations;
+    }
+
+    @Setup
+    public void setup()
+    {
+        formula = Instances.read(instance);
+        assignment = new Assignment(formula.getLiteralNumber());
+        formula.assertUnits(assignment);
+        formula.propagate(assignment);
+
+        Random random = new Random(42);
+        IntVector chosen = new IntVector();
+        for (int variable = 1; variable <= formula.getLiteralNumber(); variable++)
+        {
+            if (assignment.getStatus(variable) != Assignment.Status.UNKNOWN)
+                continue;
+
+            int literal = random.nextBoolean() ? variable : -variable;
+            assignment.newDecisionLevel();
+            assignment.add(literal, Formula.NO_CLAUSE);
+            if (formula.propagate(assignment) != Formula.NO_CLAUSE)
+                assignment.backtrack(assignment.getDecisionLevel() - 1);
+            else
+                chosen.add(literal);
+        }
+
+        decisions = chosen.toArray();
+        assignment.backtrack(0);
+    }
+
+    @Benchmark
+    public int propagate(Counters counters)
+    {
+        int start = assignment.size();
+        for (int literal : decisions)
+        {
+            if (assignment.getStatus(literal) != Assignment.Status.UNKNOWN)
+                continue;
+
+            assignment.newDecisionLevel();
+            assignment.add(literal, Formula.NO_CLAUSE);
+            formula.propagate(assignment);
+        }
+
+        int size = assignment.size();
+        counters.propagations += size - start;
+        assignment.backtrack(0);
+        return size;
+    }
+}
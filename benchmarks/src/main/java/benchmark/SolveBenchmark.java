@@ -0,0 +1,40 @@
+package benchmark;
+
+import engine.CDCL;
+import io.NullIOManager;
+import org.openjdk.jmh.annotations.*;
+import preprocessing.Preprocessor;
+import sat.Formula;
+
+import java.util.concurrent.TimeUnit;
+
+// preprocessing and search, as MainDriver runs them
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SolveBenchmark
+{
+    @Param({"uf20-01.cnf", "uf50-01.cnf", "uf75-01.cnf", "uf100-01.cnf", "uf125-33.cnf", "uf150-047.cnf",
+            "uf175-012.cnf", "uuf50-01.cnf", "uuf75-01.cnf"})
+    private String instance;
+
+    private Formula formula;
+
+    @Setup
+    public void setup()
+    {
+        formula = Instances.read(instance);
+    }
+
+    @Benchmark
+    public CDCL.Result solve()
+    {
+        Preprocessor preprocessor = new Preprocessor(formula);
+        CDCL cdcl = new CDCL(preprocessor.run(), new NullIOManager());
+        cdcl.attachPreprocessor(preprocessor);
+        return cdcl.solve();
+    }
+}
@@ -1,21 +1,107 @@
 import engine.CDCL;
+import engine.CubeAndConquer;
+import engine.Portfolio;
 import exception.FatalException;
-import io.DimacsCNF;
+import io.BinaryCNF;
+import io.CompressedDimacsCNF;
 import io.IOManager;
+import preprocessing.Preprocessor;
+import proof.DratProof;
 import sat.Formula;
+import trace.BinaryTracer;
+import trace.TextTracer;
+import trace.Tracer;
+
+import java.util.Arrays;
 
 public class MainDriver
 {
     public static void main(String[] args)
     {
+        if (args.length == 3 && args[0].equals("--snapshot"))
+        {
+            BinaryCNF.save(new CompressedDimacsCNF(args[1]).read(), args[2]);
+            return;
+        }
+
+        // --status N prints a status line every N seconds while solving,
+        // --trace file records the search in binary, or as text on stderr for -,
+        // --proof file writes a binary DRAT proof
+        long statusPeriod = 0;
+        String trace = null;
+        String proof = null;
+        while (args.length >= 2 && (args[0].equals("--status") || args[0].equals("--trace") || args[0].equals("--proof")))
+        {
+            if (args[0].equals("--status"))
+                statusPeriod = (long) (Double.parseDouble(args[1]) * 1000);
+            else if (args[0].equals("--trace"))
+                trace = args[1];
+            else
+                proof = args[1];
+            args = Arrays.copyOfRange(args, 2, args.length);
+        }
+
+        int workers = 1;
+        String mode = "";
+        if (args.length == 3 && (args[0].equals("--portfolio") || args[0].equals("--cubes")))
+        {
+            mode = args[0];
+            workers = Integer.parseInt(args[1]);
+            args = new String[] { args[2] };
+        }
+
         if (args.length != 1)
         {
             throw new FatalException("Incorrect number of arguments.");
         }
 
-        IOManager io = new DimacsCNF(args[0]);
+        if ((trace != null || proof != null) && !mode.isEmpty())
+        {
+            throw new FatalException("Tracing and proofs need a single solver.");
+        }
+
+        IOManager io = BinaryCNF.isSnapshot(args[0]) ? new BinaryCNF(args[0]) : new CompressedDimacsCNF(args[0]);
         Formula formula = io.read();
 
-        new CDCL(formula, io).run();
+        // the preprocessor leaves no derivation behind, so a proof has to start from the input itself
+        Preprocessor preprocessor = null;
+        Formula simplified = formula;
+        if (proof == null)
+        {
+            preprocessor = new Preprocessor(formula);
+            simplified = preprocessor.run();
+            io.write("Preprocessed: " + preprocessor.getEliminatedCount() + " variables eliminated, "
+                    + formula.getClauseNumber() + " -> " + simplified.getClauseNumber() + " clauses");
+        }
+
+        if (mode.equals("--cubes"))
+        {
+            CubeAndConquer cubes = new CubeAndConquer(simplified, io, workers);
+            cubes.attachPreprocessor(preprocessor);
+            cubes.run();
+            return;
+        }
+
+        if (workers > 1)
+        {
+            Portfolio portfolio = new Portfolio(simplified, io, workers);
+            portfolio.attachPreprocessor(preprocessor);
+            portfolio.setStatusPeriod(statusPeriod);
+            portfolio.run();
+            return;
+        }
+
+        CDCL cdcl = new CDCL(simplified, io);
+        cdcl.attachPreprocessor(preprocessor);
+        cdcl.setStatusPeriod(statusPeriod);
+
+        // null resources are simply not closed
+        try (Tracer tracer = trace == null ? null : trace.equals("-") ? new TextTracer(System.err) : new BinaryTracer(trace);
+             DratProof drat = proof == null ? null : new DratProof(proof))
+        {
+            cdcl.attachTracer(tracer);
+            cdcl.attachProof(drat);
+            cdcl.run();
+        }
     }
 }
@@ -0,0 +1,297 @@
+package batch;
+
+import exception.FatalException;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// solves many instances, each in its own JVM so the time and memory limits can actually be enforced;
+// usage: BatchRunner [--jobs N] [--timeout seconds] [--memory MB] [--csv file] [--cactus file] paths... [-- solver args]
+public class BatchRunner
+{
+    private int jobs = Runtime.getRuntime().availableProcessors();
+    private int timeout = 300;
+    private int memory = 2048;
+    private String csv = "results.csv";
+    private String cactus;
+    private List<String> instances = new ArrayList<>();
+    private List<String> solverArguments = new ArrayList<>();
+
+    public static void main(String[] args)
+    {
+        BatchRunner runner = new BatchRunner();
+        runner.parse(args);
+        runner.run();
+    }
+
+    private void parse(String[] args)
+    {
+        List<String> paths = new ArrayList<>();
+        for (int i = 0; i < args.length; i++)
+        {
+            switch (args[i])
+            {
+                case "--jobs":
+                    jobs = Integer.parseInt(value(args, ++i));
+                    break;
+                case "--timeout":
+                    timeout = Integer.parseInt(value(args, ++i));
+                    break;
+                case "--memory":
+                    memory = Integer.parseInt(value(args, ++i));
+                    break;
+                case "--csv":
+                    csv = value(args, ++i);
+                    break;
+                case "--cactus":
+                    cactus = value(args, ++i);
+                    break;
+                case "--":
+                    solverArguments.addAll(Arrays.asList(args).subList(i + 1, args.length));
+                    i = args.length;
+                    break;
+                default:
+                    paths.add(args[i]);
+            }
+        }
+
+        if (paths.isEmpty() || jobs < 1 || timeout < 1 || memory < 1)
+        {
+            throw new FatalException("Usage: BatchRunner [--jobs N] [--timeout seconds] [--memory MB] "
+                    + "[--csv file] [--cactus file] paths... [-- solver args]");
+        }
+
+        if (cactus == null)
+        {
+            cactus = (csv.endsWith(".csv") ? csv.substring(0, csv.length() - 4) : csv) + ".cactus.csv";
+        }
+
+        for (String path : paths)
+        {
+            collect(Paths.get(path));
+        }
+        if (instances.isEmpty())
+        {
+            throw new FatalException("No instances found.");
+        }
+    }
+
+    private static String value(String[] args, int i)
+    {
+        if (i >= args.length)
+        {
+            throw new FatalException("Missing value for " + args[i - 1] + ".");
+        }
+        return args[i];
+    }
+
+    // directories are searched recursively for anything that looks like a CNF, compressed or not
+    private void collect(Path path)
+    {
+        if (!Files.isDirectory(path))
+        {
+            instances.add(path.toString());
+            return;
+        }
+
+        try (Stream<Path> files = Files.walk(path))
+        {
+            instances.addAll(files.filter(Files::isRegularFile)
+                    .filter(file -> file.getFileName().toString().contains(".cnf"))
+                    .map(Path::toString)
+                    .sorted()
+                    .collect(Collectors.toList()));
+        }
+        catch (IOException e)
+        {
+            throw new FatalException("Can't list " + path + ".", e);
+        }
+    }
+
+    private void run()
+    {
+        String configuration = solverArguments.isEmpty() ? "default" : String.join(" ", solverArguments);
+        ExecutorService executor = Executors.newFixedThreadPool(jobs);
+        List<Future<Run>> futures = new ArrayList<>();
+        for (String instance : instances)
+        {
+            futures.add(executor.submit(() -> solve(instance, configuration)));
+        }
+
+        List<Run> runs = new ArrayList<>();
+        try
+        {
+            for (Future<Run> future : futures)
+            {
+                Run run = future.get();
+                runs.add(run);
+                System.out.println(run.getInstance() + ": " + run.getResult()
+                        + String.format(Locale.ROOT, " in %.3f seconds", run.getSeconds()));
+            }
+        }
+        catch (InterruptedException | ExecutionException e)
+        {
+            throw new FatalException("Batch run failed.", e);
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+
+        writeResults(runs);
+        writeCactus(runs);
+        summarize(runs);
+    }
+
+    private Run solve(String instance, String configuration) throws IOException, InterruptedException
+    {
+        Run run = new Run(instance, configuration);
+
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-Xmx" + memory + "m");
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add("MainDriver");
+        command.addAll(solverArguments);
+        command.add(instance);
+
+        // the output goes to a file, a model line can be longer than any pipe buffer
+        File output = File.createTempFile("batch", ".log");
+        try
+        {
+            Process process = new ProcessBuilder(command)
+                    .redirectErrorStream(true)
+                    .redirectOutput(output)
+                    .start();
+
+            long start = System.nanoTime();
+            boolean finished = process.waitFor(timeout, TimeUnit.SECONDS);
+            run.setSeconds((System.nanoTime() - start) / 1e9);
+
+            if (!finished)
+            {
+                process.destroyForcibly().waitFor();
+                run.setResult("TIMEOUT");
+                run.setSeconds(timeout);
+                return run;
+            }
+
+            read(run, output.toPath(), process.exitValue());
+            return run;
+        }
+        finally
+        {
+            output.delete();
+        }
+    }
+
+    private static void read(Run run, Path output, int exitValue) throws IOException
+    {
+        String result = null;
+        boolean outOfMemory = false;
+        try (BufferedReader reader = Files.newBufferedReader(output, StandardCharsets.ISO_8859_1))
+        {
+            for (String line = reader.readLine(); line != null; line = reader.readLine())
+            {
+                if (line.equals("SAT") || line.equals("UNSAT") || line.equals("UNKNOWN"))
+                {
+                    result = line;
+                }
+                else if (line.startsWith("Conflicts: "))
+                {
+                    String[] counts = line.substring("Conflicts: ".length()).split(", decisions: ");
+                    run.setConflicts(Long.parseLong(counts[0]));
+                    run.setDecisions(Long.parseLong(counts[1]));
+                }
+                else if (line.contains("OutOfMemoryError"))
+                {
+                    outOfMemory = true;
+                }
+            }
+        }
+
+        if (outOfMemory)
+            run.setResult("MEMOUT");
+        else if (exitValue != 0 || result == null)
+            run.setResult("ERROR");
+        else
+            run.setResult(result);
+    }
+
+    private void writeResults(List<Run> runs)
+    {
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(Paths.get(csv))))
+        {
+            writer.println(Run.HEADER);
+            for (Run run : runs)
+            {
+                writer.println(run);
+            }
+        }
+        catch (IOException e)
+        {
+            throw new FatalException("Can't write " + csv + ".", e);
+        }
+    }
+
+    // the n-th solved instance against the time needed to solve it, the usual cactus plot
+    private void writeCactus(List<Run> runs)
+    {
+        List<Double> times = new ArrayList<>();
+        for (Run run : runs)
+        {
+            if (run.isSolved())
+                times.add(run.getSeconds());
+        }
+        Collections.sort(times);
+
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(Paths.get(cactus))))
+        {
+            writer.println("solved,seconds");
+            for (int i = 0; i < times.size(); i++)
+            {
+                writer.println((i + 1) + "," + String.format(Locale.ROOT, "%.3f", times.get(i)));
+            }
+        }
+        catch (IOException e)
+        {
+            throw new FatalException("Can't write " + cactus + ".", e);
+        }
+    }
+
+    private void summarize(List<Run> runs)
+    {
+        int sat = 0, unsat = 0;
+        double par2 = 0;
+        for (Run run : runs)
+        {
+            if ("SAT".equals(run.getResult()))
+                sat++;
+            else if ("UNSAT".equals(run.getResult()))
+                unsat++;
+            par2 += run.par2(timeout);
+        }
+
+        System.out.println("Solved: " + (sat + unsat) + "/" + runs.size() + " (" + sat + " SAT, " + unsat + " UNSAT)");
+        System.out.println(String.format(Locale.ROOT, "PAR-2: %.3f", par2 / runs.size()));
+    }
+}
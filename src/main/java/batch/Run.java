@@ -0,0 +1,82 @@
+package batch;
+
+import java.util.Locale;
+
+// one instance solved by one child JVM, a line of the CSV
+public class Run
+{
+    public static final String HEADER = "instance,configuration,result,seconds,conflicts,decisions";
+
+    private String instance;
+    private String configuration;
+    private String result;
+    private double seconds;
+    private long conflicts = -1;
+    private long decisions = -1;
+
+    public Run(String instance, String configuration)
+    {
+        this.instance = instance;
+        this.configuration = configuration;
+    }
+
+    public String getInstance()
+    {
+        return instance;
+    }
+
+    public String getResult()
+    {
+        return result;
+    }
+
+    public void setResult(String result)
+    {
+        this.result = result;
+    }
+
+    public double getSeconds()
+    {
+        return seconds;
+    }
+
+    public void setSeconds(double seconds)
+    {
+        this.seconds = seconds;
+    }
+
+    public void setConflicts(long conflicts)
+    {
+        this.conflicts = conflicts;
+    }
+
+    public void setDecisions(long decisions)
+    {
+        this.decisions = decisions;
+    }
+
+    public boolean isSolved()
+    {
+        return "SAT".equals(result) || "UNSAT".equals(result);
+    }
+
+    // unsolved runs are charged twice the time limit
+    public double par2(double timeout)
+    {
+        return isSolved() ? seconds : 2 * timeout;
+    }
+
+    @Override
+    public String toString()
+    {
+        return quote(instance) + "," + quote(configuration) + "," + result + "," + String.format(Locale.ROOT, "%.3f", seconds)
+                + "," + (conflicts < 0 ? "" : conflicts) + "," + (decisions < 0 ? "" : decisions);
+    }
+
+    private static String quote(String value)
+    {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0)
+            return value;
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -2,69 +2,220 @@ package engine;
 
 import exception.FatalException;
 import io.IOManager;
+import preprocessing.Inprocessor;
+import preprocessing.Preprocessor;
+import preprocessing.Prober;
+import preprocessing.ReconstructionStack;
+import proof.DratProof;
 import picker.BranchingVariablePicker;
-import picker.FrequencyPicker;
+import picker.PhasePicker;
+import picker.SavedPhasePicker;
+import picker.VSIDSPicker;
+import restart.GlucoseRestart;
+import restart.RestartPolicy;
 import sat.*;
+import trace.Tracer;
+import util.IntVector;
 
-import java.util.*;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class CDCL implements Runnable
 {
     private IOManager io;
     private Formula formula;
     private Assignment assignment;
-    private FreqUpdater freqUpdater = new FreqUpdater();
-    private BranchingVariablePicker bvp = new FrequencyPicker(freqUpdater);
-    private int level;
-    private int steps;
-
-    private int restartThreshold = 8;
-
-    private Map<Integer, Integer> literalToLevel = new HashMap<>();
-    private Map<Integer, Set<Integer>> levelLiterals = new HashMap<>();
-    private Map<Integer, Clause> antecedent = new HashMap<>();
-
+    private BranchingVariablePicker bvp;
+    private PhasePicker phasePicker;
+    private RestartPolicy restartPolicy;
+    private Preprocessor preprocessor;
+    private Prober prober;
+    private Inprocessor inprocessor;
+    private AtomicBoolean stop;
+    private long conflictLimit = Long.MAX_VALUE;
+    private ClauseExchange.Port exchange;
+    private Tracer tracer;
+    private Clause imported = new Clause();
+    private IntVector assumptions = new IntVector();
+    private IntVector failed = new IntVector();
+    private boolean unsatisfiable;
+    private Result result = Result.UNKNOWN;
+    private ReconstructionStack substituted = new ReconstructionStack();
+
+    private SolverStats stats = new SolverStats();
+    private long statusPeriod;
+
+    private int conflicts;
+    private int nextReduce = 2000;
+    private int reduceIncrement = 300;
+    private int nextProbe = 10000;
+    private int probeIncrement = 10000;
+    private int nextInprocess = 5000;
+    private int inprocessIncrement = 5000;
+
+    private int conflict = Formula.NO_CLAUSE;
+    private int learned = Formula.NO_CLAUSE;
+    private int learnedLBD;
+
+    private Clause newClause = new Clause();
+    private boolean[] seen;
+    private int[] others;
+    private int otherCount;
+    private int[] removed;
+    private int[] stack;
+    private int[] toClear;
+    private int clearCount;
+    private int[] levelStamp;
+    private int stamp;
 
     public CDCL(Formula formula, IOManager io)
+    {
+        this(formula, io, new VSIDSPicker(), new SavedPhasePicker(), new GlucoseRestart());
+    }
+
+    public CDCL(Formula formula, IOManager io, BranchingVariablePicker bvp, PhasePicker phasePicker, RestartPolicy restartPolicy)
     {
         this.formula = formula;
         this.io = io;
+        this.bvp = bvp;
+        this.phasePicker = phasePicker;
+        this.restartPolicy = restartPolicy;
         assignment = new Assignment(formula.getLiteralNumber());
-        this.formula.attachFreqUpdater(freqUpdater);
-        assignment.attachFreqUpdater(freqUpdater);
-        assignment.clear();
+        seen = new boolean[formula.getLiteralNumber() + 1];
+        others = new int[formula.getLiteralNumber()];
+        removed = new int[formula.getLiteralNumber()];
+        stack = new int[formula.getLiteralNumber()];
+        toClear = new int[formula.getLiteralNumber()];
+        levelStamp = new int[formula.getLiteralNumber() + 1];
+        bvp.attach(formula, assignment);
+        phasePicker.attach(formula, assignment);
+        prober = new Prober(formula, assignment, substituted);
+        inprocessor = new Inprocessor(formula, assignment);
     }
 
-    private void assign(Pair pair)
+    public void attachPreprocessor(Preprocessor preprocessor)
     {
-        // update assignment
-        assignment.add(pair);
+        this.preprocessor = preprocessor;
+    }
 
-        // update internal maps
-        int literal = pair.getKey();
+    // assumptions take the first decision levels, in order, and only hold for the next solve
+    public void assume(int literal)
+    {
+        for (int i = 0; i < assumptions.size(); i++)
+        {
+            if (assumptions.get(i) == literal)
+                return;
+        }
+        assumptions.add(literal);
+    }
 
-        literalToLevel.put(literal, level);
-        Set<Integer> list = levelLiterals.get(level);
-        if (list == null)
+    // added between solves; the clause is simplified against what is already fixed at level 0
+    public void addClause(Clause clause)
+    {
+        backtrack(0);
+        if (!formula.append(clause, assignment))
         {
-            list = new HashSet<>();
+            unsatisfiable = true;
         }
-        list.add(literal);
-        levelLiterals.put(level, list);
+    }
+
+    // variables past the ones the formula started with, for clauses added later
+    public void grow(int literalNumber)
+    {
+        if (literalNumber <= formula.getLiteralNumber())
+            return;
+
+        formula.setLiteralNumber(literalNumber);
+        assignment.grow(literalNumber);
+        seen = Arrays.copyOf(seen, literalNumber + 1);
+        others = Arrays.copyOf(others, literalNumber);
+        removed = Arrays.copyOf(removed, literalNumber);
+        stack = Arrays.copyOf(stack, literalNumber);
+        toClear = Arrays.copyOf(toClear, literalNumber);
+        levelStamp = Arrays.copyOf(levelStamp, literalNumber + 1);
+        bvp.grow(literalNumber);
+        phasePicker.grow(literalNumber);
+        prober.grow(literalNumber);
+        inprocessor.grow(literalNumber);
+    }
+
+    // keeps the variable out of equivalent literal substitution, for callers that will keep using it
+    public void freeze(int variable)
+    {
+        prober.freeze(variable);
+    }
+
+    public void attachExchange(ClauseExchange.Port exchange)
+    {
+        this.exchange = exchange;
+    }
+
+    // solve gives up with UNKNOWN once this many conflicts were analyzed, counting earlier solves
+    public void setConflictLimit(long conflictLimit)
+    {
+        this.conflictLimit = conflictLimit;
+    }
+
+    public int getConflicts()
+    {
+        return conflicts;
+    }
+
+    public long getDecisions()
+    {
+        return stats.getDecisions();
+    }
+
+    public SolverStats getStats()
+    {
+        return stats;
+    }
+
+    // run prints a status line this often, in milliseconds; 0 turns it off
+    public void setStatusPeriod(long statusPeriod)
+    {
+        this.statusPeriod = statusPeriod;
+    }
+
+    // DRAT for an UNSAT answer; only sound for a single solver on the formula it was given, since
+    // imported clauses and clauses added between solves have no derivation
+    public void attachProof(DratProof proof)
+    {
+        formula.attachProof(proof);
+    }
+
+    // every event is checked against null first, so without a tracer nothing gets built
+    public void attachTracer(Tracer tracer)
+    {
+        this.tracer = tracer;
+    }
+
+    // checked before every decision, so another thread can cancel the search
+    public void attachStop(AtomicBoolean stop)
+    {
+        this.stop = stop;
+    }
 
-        // update formula and clauses internal maps
-        formula.notify(literal, assignment);
+    private void assign(Pair pair)
+    {
+        stats.decision();
+        assignment.newDecisionLevel();
+        assignment.add(pair);
     }
 
     private boolean unitPropagation()
     {
-        Unit unit = formula.getUnit();
-        while (unit != null && !formula.hasConflict())
+        int start = assignment.size();
+        conflict = formula.propagate(assignment);
+        stats.propagated(assignment.size() - start);
+
+        if (tracer != null)
         {
-            io.write(unit.toString());
-            assign(unit.getPair());
-            antecedent.put(unit.getPair().getKey(), unit.getClause());
-            unit = formula.getUnit();
+            for (int i = start; i < assignment.size(); i++)
+            {
+                int literal = assignment.getTrail(i);
+                tracer.propagated(literal, assignment.getReason(literal < 0 ? -literal : literal));
+            }
         }
 
         return hasConflict();
@@ -72,167 +223,484 @@ public class CDCL implements Runnable
 
     private boolean hasConflict()
     {
-        return formula.hasConflict();
+        return conflict != Formula.NO_CLAUSE;
     }
 
     private boolean allVariablesAssigned()
     {
-        if (assignment.size() > maxProgress)
-        {
-            maxProgress = assignment.size();
-            System.out.println("Progress: " + maxProgress + "/" + formula.getLiteralNumber());
-        }
         return assignment.size() == formula.getLiteralNumber();
     }
 
     private Pair pickBranchingVariable()
     {
-        return bvp.pick(formula, assignment);
+        Pair pair = bvp.pick(formula, assignment);
+        return new Pair(pair.getKey(), phasePicker.pick(pair.getKey(), pair.getValue()));
     }
 
-    private Clause findAntecedent(Clause clause)
+    // first UIP: resolve backwards along the trail until a single literal of the conflict level remains
+    private int generateNewClause()
     {
-        for (Integer literal : clause.getLiterals())
+        if (conflict == Formula.NO_CLAUSE)
         {
-            int normalizedLiteral = literal < 0 ? -1 * literal : literal;
-            if (antecedent.get(normalizedLiteral) != null)
-                return antecedent.get(normalizedLiteral);
+            throw new FatalException("Conflict was not found even if detected by unit propagation!");
         }
-        return null;
-    }
 
-    private Clause generateNewClause()
-    {
-        Clause conflict = formula.getConflict();
-        if (conflict == null)
+        ClauseArena arena = formula.getArena();
+        int conflictLevel = assignment.getDecisionLevel();
+        int pathCount = 0;
+        int literal = 0;
+        int index = assignment.size() - 1;
+        int clause = conflict;
+        otherCount = 0;
+
+        do
         {
-            throw new FatalException("Conflict was not found even if detected by unit propagation!");
+            if (arena.isLearned(clause))
+            {
+                formula.used(clause, lbd(clause));
+            }
+
+            for (int i = 0; i < arena.size(clause); i++)
+            {
+                int q = arena.literal(clause, i);
+                int variable = q < 0 ? -q : q;
+                if (q == literal || seen[variable] || assignment.getLevel(variable) == 0)
+                    continue;
+
+                seen[variable] = true;
+                bvp.bump(variable);
+                if (assignment.getLevel(variable) >= conflictLevel)
+                    pathCount++;
+                else
+                    others[otherCount++] = q;
+            }
+
+            do
+            {
+                literal = assignment.getTrail(index--);
+            }
+            while (!seen[literal < 0 ? -literal : literal]);
+
+            clause = assignment.getReason(literal < 0 ? -literal : literal);
+            seen[literal < 0 ? -literal : literal] = false;
+            pathCount--;
+        }
+        while (pathCount > 0);
+
+        int count = otherCount;
+        minimize();
+
+        newClause.clear();
+        newClause.add(-literal);
+        int assertionLevel = 0;
+        for (int i = 0; i < otherCount; i++)
+        {
+            newClause.add(others[i]);
+            assertionLevel = Math.max(assertionLevel, assignment.getLevel(Math.abs(others[i])));
+        }
+
+        for (int i = 0; i < count; i++)
+        {
+            seen[Math.abs(removed[i])] = false;
         }
 
-        Clause newClause = new Clause();
-        for (Integer literal : conflict.getLiterals())
+        return assertionLevel;
+    }
+
+    private void minimize()
+    {
+        int abstractLevels = 0;
+        for (int i = 0; i < otherCount; i++)
         {
-            newClause.add(literal);
+            abstractLevels |= abstractLevel(others[i]);
         }
 
-        Clause prev = findAntecedent(newClause);
-        while (prev != null)
+        System.arraycopy(others, 0, removed, 0, otherCount);
+        clearCount = 0;
+
+        int kept = 0;
+        for (int i = 0; i < otherCount; i++)
         {
-            newClause = newClause.resolve(prev);
-            prev = findAntecedent(newClause);
+            int literal = others[i];
+            if (assignment.getReason(Math.abs(literal)) == Formula.NO_CLAUSE || !redundant(literal, abstractLevels))
+                others[kept++] = literal;
         }
+        otherCount = kept;
 
-        if (newClause.getLiterals().isEmpty())
+        for (int i = 0; i < clearCount; i++)
         {
-            throw new FatalException("Resolut empty clause!");
+            seen[Math.abs(toClear[i])] = false;
         }
+    }
 
-        return newClause;
+    private int abstractLevel(int literal)
+    {
+        return 1 << (assignment.getLevel(Math.abs(literal)) & 31);
     }
 
-    private int conflictAnalyze()
+    // a literal is redundant when every path through its reasons ends in literals already in the clause
+    private boolean redundant(int literal, int abstractLevels)
     {
-        Clause newClause = generateNewClause();
-        io.write("Learned new clause: " + newClause);
-        formula.append(newClause, true);
-        for (Integer literal : newClause.getLiterals())
+        ClauseArena arena = formula.getArena();
+        int top = clearCount;
+        int stackSize = 0;
+        stack[stackSize++] = literal;
+
+        while (stackSize > 0)
         {
-            formula.notify(literal, assignment);
+            int variable = Math.abs(stack[--stackSize]);
+            int clause = assignment.getReason(variable);
+
+            for (int i = 0; i < arena.size(clause); i++)
+            {
+                int q = arena.literal(clause, i);
+                int other = Math.abs(q);
+                if (other == variable || seen[other] || assignment.getLevel(other) == 0)
+                    continue;
+
+                if (assignment.getReason(other) != Formula.NO_CLAUSE && (abstractLevel(q) & abstractLevels) != 0)
+                {
+                    seen[other] = true;
+                    stack[stackSize++] = q;
+                    toClear[clearCount++] = q;
+                }
+                else
+                {
+                    for (int j = top; j < clearCount; j++)
+                    {
+                        seen[Math.abs(toClear[j])] = false;
+                    }
+                    clearCount = top;
+                    return false;
+                }
+            }
         }
 
-        int maxim = -1;
-        boolean first = true;
+        return true;
+    }
+
+    private int conflictAnalyze()
+    {
+        int assertionLevel = generateNewClause();
 
-        for (Integer literal : newClause.getLiterals())
+        // the UIP is watched together with a literal from the assertion level
+        int watchB = 0;
+        for (int i = 1; i < newClause.size(); i++)
         {
-            int normalizedLiteral = literal < 0 ? literal * -1 : literal;
-            if (antecedent.get(normalizedLiteral) != null)
+            if (assignment.getLevel(Math.abs(newClause.get(i))) == assertionLevel)
             {
-                throw new FatalException("The new learned claused is has antecedents.");
+                watchB = i;
+                break;
             }
+        }
 
-            if (assignment.getStatus(normalizedLiteral) == Assignment.Status.UNKNOWN)
+        learnedLBD = lbd(newClause);
+        if (tracer != null)
+        {
+            tracer.learned(newClause, learnedLBD);
+        }
+        learned = formula.learn(newClause, 0, watchB, learnedLBD);
+        if (exchange != null)
+        {
+            exchange.export(newClause, learnedLBD);
+        }
+        stats.conflict(newClause.size(), learnedLBD);
+        stats.database(formula.getLearnedCount(), formula.getArena().capacity());
+        bvp.decay();
+        formula.decayClauses(0.999f);
+        return assertionLevel;
+    }
+
+    // literal block distance: number of distinct decision levels in the clause
+    private int lbd(int ref)
+    {
+        ClauseArena arena = formula.getArena();
+        stamp++;
+        int count = 0;
+        for (int i = 0; i < arena.size(ref); i++)
+        {
+            int level = assignment.getLevel(Math.abs(arena.literal(ref, i)));
+            if (levelStamp[level] != stamp)
             {
-                throw new FatalException("All literals should have been assigned.");
+                levelStamp[level] = stamp;
+                count++;
             }
+        }
+        return count;
+    }
 
-            int litLevel = literalToLevel.get(normalizedLiteral);
-            if (litLevel > maxim || first)
+    private int lbd(Clause clause)
+    {
+        stamp++;
+        int count = 0;
+        for (int i = 0; i < clause.size(); i++)
+        {
+            int level = assignment.getLevel(Math.abs(clause.get(i)));
+            if (levelStamp[level] != stamp)
             {
-                maxim = litLevel;
-                first = false;
+                levelStamp[level] = stamp;
+                count++;
             }
         }
-
-        return maxim - 1;
+        return count;
     }
 
     private void backtrack(int beta)
     {
-        for (int i = level; i > beta; i--)
+        if (assignment.getDecisionLevel() <= beta)
+            return;
+
+        if (tracer != null)
         {
-            Set<Integer> assigned = levelLiterals.get(i);
+            tracer.backtracked(beta);
+        }
+
+        for (int i = assignment.size() - 1; i >= assignment.getTrailLimit(beta); i--)
+        {
+            int literal = assignment.getTrail(i);
+            bvp.unassigned(literal < 0 ? -literal : literal);
+            phasePicker.unassigned(literal);
+        }
+        assignment.backtrack(beta);
+    }
 
-            if (assigned == null || assigned.isEmpty())
+    // clauses other workers learned, added at level 0 where they can't clash with the trail
+    private boolean importShared()
+    {
+        for (ClauseExchange.Shared shared = exchange.poll(); shared != null; shared = exchange.poll())
+        {
+            imported.clear();
+            for (int i = 0; i < shared.size(); i++)
             {
-                throw new FatalException("Can't have empty decision levels.");
+                imported.add(shared.get(i));
             }
 
-            for (Integer literal : assigned)
-            {
-                literal = literal < 0 ? -literal : literal;
+            if (!formula.learn(imported, shared.getLBD(), assignment) || unitPropagation())
+                return false;
+        }
+        return true;
+    }
 
-                assignment.remove(literal);
-                literalToLevel.remove(literal);
-                antecedent.remove(literal);
-                formula.undo(literal, assignment);
-            }
+    // can be called again after more clauses and assumptions; learned clauses and scores carry over
+    public Result solve()
+    {
+        backtrack(0);
+        failed.clear();
 
-            levelLiterals.remove(i);
+        for (int i = 0; i < assumptions.size(); i++)
+        {
+            prober.freeze(Math.abs(assumptions.get(i)));
         }
-        level = beta;
+
+        result = unsatisfiable ? Result.UNSAT : execute();
+        assumptions.clear();
+        return result;
     }
 
-    private int maxProgress = 0;
+    public Result getResult()
+    {
+        return result;
+    }
 
-    private boolean execute()
+    private Result execute()
     {
-        if (unitPropagation())
+        if (formula.hasEmptyClause())
+        {
+            return refuted();
+        }
+
+        conflict = formula.assertUnits(assignment);
+
+        if (hasConflict() || unitPropagation() || (conflicts == 0 && !prober.run()))
         {
-            return false; // UNSAT
+            return refuted();
         }
 
-        level = 0;
         while (!allVariablesAssigned())
         {
-            if (steps == restartThreshold)
+            if (restartPolicy.shouldRestart())
             {
-                steps = 0;
-                restartThreshold *= 2;
-
+                phasePicker.trail(assignment, assignment.size());
                 backtrack(0);
-                return execute();
+                restartPolicy.restarted();
+                stats.restart();
+                if (tracer != null)
+                {
+                    tracer.restarted();
+                }
+
+                if (exchange != null && !importShared())
+                    return refuted();
+
+                if (conflicts >= nextProbe)
+                {
+                    nextProbe = conflicts + probeIncrement;
+                    probeIncrement += 5000;
+                    if (!prober.run())
+                        return refuted();
+                }
+
+                if (conflicts >= nextInprocess)
+                {
+                    nextInprocess = conflicts + inprocessIncrement;
+                    inprocessIncrement += 2500;
+                    if (!inprocessor.run())
+                        return refuted();
+                }
+                continue;
             }
 
-            Pair pair = pickBranchingVariable();
-            io.write(pair.toString());
-            level++;
-            steps++;
-            assign(pair);
-            // variabilele de decizie nu au antecedent
-            antecedent.put(pair.getKey(), null);
+            if ((stop != null && stop.get()) || conflicts >= conflictLimit)
+                return Result.UNKNOWN;
+
+            if (assignment.getDecisionLevel() < assumptions.size())
+            {
+                int literal = assumptions.get(assignment.getDecisionLevel());
+                Assignment.Status status = assignment.getStatus(literal);
+                if (status == Assignment.Status.FALSE)
+                    return failed(literal);
+
+                // an assumption that already holds still gets its own, empty, level
+                assignment.newDecisionLevel();
+                if (status == Assignment.Status.TRUE)
+                    continue;
+                assignment.add(literal, Formula.NO_CLAUSE);
+                if (tracer != null)
+                {
+                    tracer.decision(literal, assignment.getDecisionLevel());
+                }
+            }
+            else
+            {
+                Pair pair = pickBranchingVariable();
+                // variabilele de decizie nu au antecedent
+                assign(pair);
+                if (tracer != null)
+                {
+                    tracer.decision(pair.getValue() ? pair.getKey() : -pair.getKey(), assignment.getDecisionLevel());
+                }
+            }
 
             while (unitPropagation())
             {
-                if (level == 0)
-                    return false;
+                if (assignment.getDecisionLevel() == 0)
+                    return refuted();
 
+                // jump straight to the assertion level, where the learned clause is unit
                 int beta = conflictAnalyze();
+                restartPolicy.conflict(learnedLBD, assignment.size());
+                phasePicker.conflict();
+                phasePicker.trail(assignment, assignment.getTrailLimit(assignment.getDecisionLevel() - 1));
                 backtrack(beta);
+                assignment.add(newClause.get(0), learned);
+
+                if (++conflicts >= nextReduce)
+                {
+                    nextReduce = conflicts + reduceIncrement;
+                    reduceIncrement += 300;
+                    formula.reduce(assignment);
+                    stats.database(formula.getLearnedCount(), formula.getArena().capacity());
+                }
             }
         }
 
-        return true; // SAT
+        // with every variable assigned, assumptions not yet reached may still be false
+        for (int i = 0; i < assumptions.size(); i++)
+        {
+            if (assignment.getStatus(assumptions.get(i)) != Assignment.Status.TRUE)
+                return failed(assumptions.get(i));
+        }
+
+        return Result.SAT;
+    }
+
+    // UNSAT without any assumption, so every later solve is UNSAT as well
+    private Result refuted()
+    {
+        if (!unsatisfiable && formula.getProof() != null)
+        {
+            formula.getProof().addEmpty();
+        }
+        unsatisfiable = true;
+        return Result.UNSAT;
+    }
+
+    // collects the assumptions that imply the negation of the failed one
+    private Result failed(int literal)
+    {
+        failed.add(literal);
+        int variable = Math.abs(literal);
+        if (assignment.getLevel(variable) == 0)
+            return Result.UNSAT;
+
+        seen[variable] = true;
+        for (int i = assignment.size() - 1; i >= assignment.getTrailLimit(0); i--)
+        {
+            int implied = assignment.getTrail(i);
+            variable = Math.abs(implied);
+            if (!seen[variable])
+                continue;
+
+            seen[variable] = false;
+            int reason = assignment.getReason(variable);
+            if (reason == Formula.NO_CLAUSE)
+            {
+                // while assumptions are still being placed, every decision is one of them
+                failed.add(implied);
+                continue;
+            }
+
+            ClauseArena arena = formula.getArena();
+            for (int j = 0; j < arena.size(reason); j++)
+            {
+                int other = Math.abs(arena.literal(reason, j));
+                if (other != variable && assignment.getLevel(other) > 0)
+                    seen[other] = true;
+            }
+        }
+
+        return Result.UNSAT;
+    }
+
+    public boolean isFailed(int literal)
+    {
+        for (int i = 0; i < failed.size(); i++)
+        {
+            if (failed.get(i) == literal)
+                return true;
+        }
+        return false;
+    }
+
+    // substituted and eliminated variables get their values back, latest simplification first
+    public Assignment getModel()
+    {
+        if (preprocessor == null && substituted.isEmpty())
+            return assignment;
+
+        boolean[] model = new boolean[formula.getLiteralNumber() + 1];
+        for (int variable = 1; variable < model.length; variable++)
+        {
+            model[variable] = assignment.getStatus(variable) == Assignment.Status.TRUE;
+        }
+
+        substituted.extend(model);
+        if (preprocessor != null)
+        {
+            preprocessor.extend(model);
+        }
+
+        Assignment extended = new Assignment(formula.getLiteralNumber());
+        for (int variable = 1; variable < model.length; variable++)
+        {
+            extended.add(new Pair(variable, model[variable]));
+        }
+        return extended;
+    }
+
+    public Formula getInput()
+    {
+        return preprocessor != null ? preprocessor.getOriginal() : formula;
     }
 
     @Override
@@ -240,27 +708,60 @@ public class CDCL implements Runnable
     {
         io.silence(true);
 
+        stats.monitor("solver", statusPeriod);
         long start = System.nanoTime();
-        boolean result = execute();
+        try
+        {
+            solve();
+        }
+        finally
+        {
+            stats.close();
+        }
         long finish = System.nanoTime();
 
         io.silence(false);
 
-        if (result)
+        report(io, this, finish - start);
+    }
+
+    // the solver only matters for a SAT answer, where its model is printed and checked
+    static void report(IOManager io, CDCL solver, long nanos)
+    {
+        if (solver == null)
         {
+            report(io, Result.UNKNOWN, null, -1, -1, nanos);
+            return;
+        }
+        report(io, solver.getResult(), solver, solver.getConflicts(), solver.getDecisions(), nanos);
+    }
+
+    // negative counts are left out
+    static void report(IOManager io, Result result, CDCL solver, long conflicts, long decisions, long nanos)
+    {
+        if (result == Result.SAT)
+        {
+            Assignment model = solver.getModel();
+
             io.write("SAT");
-            io.write(assignment.toString());
+            io.write(model.toString());
 
-            if (!formula.check(assignment))
+            if (!solver.getInput().check(model))
             {
                 throw new FatalException("Answer is not correct");
             }
         }
         else
         {
-            io.write("UNSAT");
+            io.write(result.toString());
         }
 
-        io.write("Solution computed in: " + (finish - start) / 1e9 + " seconds.");
+        if (conflicts >= 0)
+        {
+            io.write("Conflicts: " + conflicts + ", decisions: " + decisions);
+        }
+        io.write("Solution computed in: " + nanos / 1e9 + " seconds.");
     }
+
+    public enum Result { SAT, UNSAT, UNKNOWN }
 }
@@ -0,0 +1,156 @@
+package engine;
+
+import sat.Clause;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// every worker publishes its short learned clauses into its own ring; readers never block the writer
+// and simply skip whatever got overwritten before they came around to it
+public class ClauseExchange
+{
+    private static final int CAPACITY = 1 << 12,
+                             MASK = CAPACITY - 1,
+                             SEEN_CAPACITY = 1 << 14;
+
+    private int maxSize;
+    private int maxLBD;
+    private Ring[] rings;
+
+    public ClauseExchange(int workers)
+    {
+        this(workers, 8, 3);
+    }
+
+    public ClauseExchange(int workers, int maxSize, int maxLBD)
+    {
+        this.maxSize = maxSize;
+        this.maxLBD = maxLBD;
+        rings = new Ring[workers];
+        for (int i = 0; i < workers; i++)
+        {
+            rings[i] = new Ring();
+        }
+    }
+
+    public Port port(int worker)
+    {
+        return new Port(worker);
+    }
+
+    private boolean accepts(int size, int lbd)
+    {
+        return size <= 2 || (size <= maxSize && lbd <= maxLBD);
+    }
+
+    public static final class Shared
+    {
+        private final long sequence;
+        private final int[] literals;
+        private final int lbd;
+
+        private Shared(long sequence, int[] literals, int lbd)
+        {
+            this.sequence = sequence;
+            this.literals = literals;
+            this.lbd = lbd;
+        }
+
+        public int size()
+        {
+            return literals.length;
+        }
+
+        public int get(int index)
+        {
+            return literals[index];
+        }
+
+        public int getLBD()
+        {
+            return lbd;
+        }
+    }
+
+    private static final class Ring
+    {
+        private final AtomicReferenceArray<Shared> slots = new AtomicReferenceArray<>(CAPACITY);
+        private final AtomicLong written = new AtomicLong();
+    }
+
+    // the view of a single worker; only that worker's thread may use it
+    public final class Port
+    {
+        private int worker;
+        private long[] cursors = new long[rings.length];
+        private int source;
+        private int[][] seen = new int[SEEN_CAPACITY][];
+
+        private Port(int worker)
+        {
+            this.worker = worker;
+        }
+
+        public void export(Clause clause, int lbd)
+        {
+            if (!accepts(clause.size(), lbd))
+                return;
+
+            int[] literals = new int[clause.size()];
+            for (int i = 0; i < literals.length; i++)
+            {
+                literals[i] = clause.get(i);
+            }
+
+            if (!firstSeen(literals))
+                return;
+
+            Ring ring = rings[worker];
+            long position = ring.written.get();
+            ring.slots.set((int) (position & MASK), new Shared(position, literals, lbd));
+            ring.written.lazySet(position + 1);
+        }
+
+        // next clause from the other workers that this one hasn't seen, or null
+        public Shared poll()
+        {
+            for (int checked = 0; checked < rings.length; checked++, source = (source + 1) % rings.length)
+            {
+                if (source == worker)
+                    continue;
+
+                Ring ring = rings[source];
+                long end = ring.written.get();
+                cursors[source] = Math.max(cursors[source], end - CAPACITY);
+
+                while (cursors[source] < end)
+                {
+                    long position = cursors[source]++;
+                    Shared shared = ring.slots.get((int) (position & MASK));
+                    if (shared != null && shared.sequence == position && firstSeen(shared.literals))
+                        return shared;
+                }
+            }
+
+            return null;
+        }
+
+        // a direct mapped table of sorted clauses: memory stays bounded and a newer clause simply
+        // overwrites an older one, so a duplicate may get through again but a distinct clause never
+        // gets dropped
+        private boolean firstSeen(int[] literals)
+        {
+            int[] sorted = literals.clone();
+            Arrays.sort(sorted);
+
+            int hash = Arrays.hashCode(sorted);
+            int slot = (hash ^ (hash >>> 16)) & (SEEN_CAPACITY - 1);
+            if (Arrays.equals(seen[slot], sorted))
+                return false;
+
+            seen[slot] = sorted;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package engine;
+
+import exception.FatalException;
+import io.IOManager;
+import preprocessing.Preprocessor;
+import sat.Formula;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+// the cuber splits the formula, then every cube is solved under assumptions on a work stealing pool;
+// one satisfiable cube is enough, UNSAT needs all of them refuted
+public class CubeAndConquer implements Runnable
+{
+    private IOManager io;
+    private Formula formula;
+    private int workers;
+    private int depth;
+    private Preprocessor preprocessor;
+    private List<int[]> cubes;
+    private AtomicBoolean stop = new AtomicBoolean();
+    private AtomicReference<CDCL> winner = new AtomicReference<>();
+    private AtomicLong conflicts = new AtomicLong();
+    private AtomicLong decisions = new AtomicLong();
+
+    public CubeAndConquer(Formula formula, IOManager io, int workers)
+    {
+        // a few times more cubes than workers keeps everyone busy when cubes differ in hardness
+        this(formula, io, workers, 32 - Integer.numberOfLeadingZeros(workers) + 4);
+    }
+
+    public CubeAndConquer(Formula formula, IOManager io, int workers, int depth)
+    {
+        if (workers < 1)
+        {
+            throw new FatalException("Cube and conquer needs at least one worker.");
+        }
+
+        this.formula = formula;
+        this.io = io;
+        this.workers = workers;
+        this.depth = depth;
+    }
+
+    public void attachPreprocessor(Preprocessor preprocessor)
+    {
+        this.preprocessor = preprocessor;
+    }
+
+    public int getCubeCount()
+    {
+        return cubes == null ? 0 : cubes.size();
+    }
+
+    private class Conquer extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+
+        private int from;
+        private int to;
+
+        private Conquer(int from, int to)
+        {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute()
+        {
+            if (stop.get())
+                return;
+
+            if (to - from > 1)
+            {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Conquer(from, middle), new Conquer(middle, to));
+                return;
+            }
+
+            CDCL cdcl = new CDCL(formula.copy(), io);
+            cdcl.attachStop(stop);
+            if (preprocessor != null)
+            {
+                cdcl.attachPreprocessor(preprocessor);
+            }
+            for (int literal : cubes.get(from))
+            {
+                cdcl.assume(literal);
+            }
+
+            CDCL.Result result = cdcl.solve();
+            conflicts.addAndGet(cdcl.getConflicts());
+            decisions.addAndGet(cdcl.getDecisions());
+            if (result == CDCL.Result.SAT && winner.compareAndSet(null, cdcl))
+            {
+                stop.set(true);
+            }
+        }
+    }
+
+    private CDCL conquer()
+    {
+        cubes = new Cuber(formula, depth).cube();
+        if (cubes.isEmpty())
+            return null;
+
+        ForkJoinPool pool = new ForkJoinPool(workers);
+        try
+        {
+            pool.invoke(new Conquer(0, cubes.size()));
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+
+        return winner.get();
+    }
+
+    @Override
+    public void run()
+    {
+        io.silence(true);
+
+        long start = System.nanoTime();
+        CDCL solver = conquer();
+        long finish = System.nanoTime();
+
+        io.silence(false);
+        io.write("Cubes: " + getCubeCount());
+
+        // no winner means every cube was refuted; the counts are over all cubes either way
+        CDCL.Result result = solver == null ? CDCL.Result.UNSAT : CDCL.Result.SAT;
+        CDCL.report(io, result, solver, conflicts.get(), decisions.get(), finish - start);
+    }
+}
@@ -0,0 +1,155 @@
+package engine;
+
+import sat.Assignment;
+import sat.ClauseArena;
+import sat.Formula;
+import util.IntVector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// lookahead splitting: every node branches on the variable whose two sides propagate the most,
+// and the paths to the leaves are the cubes
+public class Cuber
+{
+    private static final int CANDIDATES = 32;
+
+    private Formula formula;
+    private Assignment assignment;
+    private int depth;
+    private Integer[] order;
+    private IntVector path = new IntVector();
+    private List<int[]> cubes = new ArrayList<>();
+
+    public Cuber(Formula formula, int depth)
+    {
+        // propagating moves watches around, so the cuber works on its own copy
+        this.formula = formula.copy();
+        this.assignment = new Assignment(formula.getLiteralNumber());
+        this.depth = depth;
+
+        int[] occurrences = new int[formula.getLiteralNumber() + 1];
+        ClauseArena arena = this.formula.getArena();
+        for (int ref = arena.begin(); ref < arena.end(); ref = arena.next(ref))
+        {
+            for (int i = 0; i < arena.size(ref); i++)
+            {
+                occurrences[Math.abs(arena.literal(ref, i))]++;
+            }
+        }
+
+        order = new Integer[formula.getLiteralNumber()];
+        for (int i = 0; i < order.length; i++)
+        {
+            order[i] = i + 1;
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(occurrences[b], occurrences[a]));
+    }
+
+    // no cubes at all means the formula is already refuted
+    public List<int[]> cube()
+    {
+        if (formula.hasEmptyClause()
+                || formula.assertUnits(assignment) != Formula.NO_CLAUSE
+                || formula.propagate(assignment) != Formula.NO_CLAUSE)
+            return cubes;
+
+        split();
+        return cubes;
+    }
+
+    private void split()
+    {
+        int level = assignment.getDecisionLevel();
+        if (level == depth || assignment.size() == formula.getLiteralNumber())
+        {
+            cubes.add(path.toArray());
+            return;
+        }
+
+        int best = select();
+        if (best < 0)
+            return;
+
+        if (best == 0)
+        {
+            cubes.add(path.toArray());
+            return;
+        }
+
+        branch(best, level);
+        branch(-best, level);
+    }
+
+    // best scoring candidate, 0 when nothing is left to branch on, -1 when this node is refuted
+    private int select()
+    {
+        int best = 0;
+        long bestScore = -1;
+        for (int i = 0, checked = 0; i < order.length && checked < CANDIDATES; i++)
+        {
+            int variable = order[i];
+            if (assignment.getStatus(variable) != Assignment.Status.UNKNOWN)
+                continue;
+            checked++;
+
+            int positive = lookahead(variable);
+            int negative = lookahead(-variable);
+
+            // a failed literal fixes the other side for this whole subtree, then the scan starts over
+            if (positive < 0 || negative < 0)
+            {
+                if (positive < 0 && negative < 0)
+                    return -1;
+
+                assignment.add(positive < 0 ? -variable : variable, Formula.NO_CLAUSE);
+                if (formula.propagate(assignment) != Formula.NO_CLAUSE)
+                    return -1;
+
+                best = 0;
+                bestScore = -1;
+                i = -1;
+                checked = 0;
+                continue;
+            }
+
+            long score = (long) (positive + 1) * (negative + 1);
+            if (score > bestScore)
+            {
+                bestScore = score;
+                best = variable;
+            }
+        }
+
+        return best;
+    }
+
+    private void branch(int literal, int level)
+    {
+        assignment.newDecisionLevel();
+        assignment.add(literal, Formula.NO_CLAUSE);
+        if (formula.propagate(assignment) == Formula.NO_CLAUSE)
+        {
+            path.add(literal);
+            split();
+            path.pop();
+        }
+        assignment.backtrack(level);
+    }
+
+    // number of literals the assignment implies, or -1 when it fails
+    private int lookahead(int literal)
+    {
+        int level = assignment.getDecisionLevel();
+        int start = assignment.size();
+
+        assignment.newDecisionLevel();
+        assignment.add(literal, Formula.NO_CLAUSE);
+        boolean failed = formula.propagate(assignment) != Formula.NO_CLAUSE;
+        int implied = assignment.size() - start;
+        assignment.backtrack(level);
+
+        return failed ? -1 : implied;
+    }
+}
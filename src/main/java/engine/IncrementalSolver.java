@@ -0,0 +1,101 @@
+package engine;
+
+import io.NullIOManager;
+import sat.Assignment;
+import sat.Clause;
+import sat.Formula;
+
+// IPASIR style library interface: one solver answers many related queries and keeps
+// its learned clauses, scores and watches from one to the next
+public class IncrementalSolver
+{
+    private CDCL cdcl;
+    private Clause clause = new Clause();
+    private int literalNumber;
+    private Assignment model;
+
+    public IncrementalSolver()
+    {
+        Formula formula = new Formula();
+        cdcl = new CDCL(formula, new NullIOManager());
+    }
+
+    // literals are added one by one, 0 closes the clause
+    public void add(int literal)
+    {
+        if (literal != 0)
+        {
+            clause.add(literal);
+            return;
+        }
+
+        addClause(clause);
+        clause.clear();
+    }
+
+    public void addClause(int... literals)
+    {
+        Clause added = new Clause();
+        for (int literal : literals)
+        {
+            added.add(literal);
+        }
+        addClause(added);
+    }
+
+    private void addClause(Clause added)
+    {
+        for (int i = 0; i < added.size(); i++)
+        {
+            grow(Math.abs(added.get(i)));
+        }
+
+        model = null;
+        cdcl.addClause(added);
+    }
+
+    public void assume(int literal)
+    {
+        grow(Math.abs(literal));
+        cdcl.assume(literal);
+    }
+
+    public CDCL.Result solve()
+    {
+        CDCL.Result result = cdcl.solve();
+        model = result == CDCL.Result.SAT ? cdcl.getModel() : null;
+        return result;
+    }
+
+    // the literal itself when it is true in the last model, its negation when false, 0 otherwise
+    public int value(int literal)
+    {
+        if (model == null || Math.abs(literal) > literalNumber)
+            return 0;
+
+        Assignment.Status status = model.getStatus(literal);
+        if (status == Assignment.Status.UNKNOWN)
+            return 0;
+        return status == Assignment.Status.TRUE ? literal : -literal;
+    }
+
+    // whether the assumption was part of the reason the last solve came back UNSAT
+    public boolean failed(int literal)
+    {
+        return cdcl.isFailed(literal);
+    }
+
+    // every variable stays usable in later clauses and assumptions, so none may be substituted away
+    private void grow(int variable)
+    {
+        if (variable <= literalNumber)
+            return;
+
+        cdcl.grow(variable);
+        for (int i = literalNumber + 1; i <= variable; i++)
+        {
+            cdcl.freeze(i);
+        }
+        literalNumber = variable;
+    }
+}
@@ -0,0 +1,164 @@
+package engine;
+
+import exception.FatalException;
+import io.IOManager;
+import picker.SavedPhasePicker;
+import picker.VSIDSPicker;
+import preprocessing.Preprocessor;
+import restart.GlucoseRestart;
+import restart.LubyRestart;
+import sat.Formula;
+
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// differently configured solvers race on the same formula; the first answer stops the rest
+public class Portfolio implements Runnable
+{
+    private static final int SHUTDOWN_TIMEOUT = 10;
+
+    private IOManager io;
+    private Formula formula;
+    private int workers;
+    private Preprocessor preprocessor;
+    private AtomicBoolean stop = new AtomicBoolean();
+    private ClauseExchange exchange;
+    private long statusPeriod;
+
+    public Portfolio(Formula formula, IOManager io, int workers)
+    {
+        if (workers < 1)
+        {
+            throw new FatalException("Portfolio needs at least one worker.");
+        }
+
+        this.formula = formula;
+        this.io = io;
+        this.workers = workers;
+        this.exchange = new ClauseExchange(workers);
+    }
+
+    public void attachPreprocessor(Preprocessor preprocessor)
+    {
+        this.preprocessor = preprocessor;
+    }
+
+    // every worker prints its own status line this often, in milliseconds; 0 turns it off
+    public void setStatusPeriod(long statusPeriod)
+    {
+        this.statusPeriod = statusPeriod;
+    }
+
+    // worker 0 is the default solver, the others vary seeds, decay, phases and restarts
+    private CDCL configure(int worker, Formula formula)
+    {
+        long seed = worker;
+        switch (worker % 4)
+        {
+            case 0:
+                if (worker == 0)
+                    return new CDCL(formula, io);
+                return new CDCL(formula, io, new VSIDSPicker(0.95, seed), new SavedPhasePicker(true, 1000, seed), new GlucoseRestart());
+            case 1:
+                return new CDCL(formula, io, new VSIDSPicker(0.95, seed), new SavedPhasePicker(false, 1000, seed), new LubyRestart());
+            case 2:
+                return new CDCL(formula, io, new VSIDSPicker(0.85, seed), new SavedPhasePicker(true, 500, seed), new LubyRestart(50));
+            default:
+                return new CDCL(formula, io, new VSIDSPicker(0.99, seed), new SavedPhasePicker(false, 2000, seed), new GlucoseRestart(1.15, 1.4, 50, 10000));
+        }
+    }
+
+    // each worker builds its own copy, the shared formula is only read
+    private CDCL solve(int worker)
+    {
+        CDCL cdcl = configure(worker, formula.copy());
+        cdcl.attachStop(stop);
+        cdcl.attachExchange(exchange.port(worker));
+        if (preprocessor != null)
+        {
+            cdcl.attachPreprocessor(preprocessor);
+        }
+
+        cdcl.getStats().monitor("worker-" + worker, statusPeriod);
+        try
+        {
+            return cdcl.solve() == CDCL.Result.UNKNOWN ? null : cdcl;
+        }
+        finally
+        {
+            cdcl.getStats().close();
+        }
+    }
+
+    private CDCL race()
+    {
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        CompletionService<CDCL> results = new ExecutorCompletionService<>(pool);
+        for (int i = 0; i < workers; i++)
+        {
+            int worker = i;
+            results.submit(() -> solve(worker));
+        }
+
+        try
+        {
+            CDCL winner = null;
+            for (int i = 0; i < workers && winner == null; i++)
+            {
+                winner = results.take().get();
+            }
+            return winner;
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new FatalException("Interrupted while waiting for the portfolio.", e);
+        }
+        catch (ExecutionException e)
+        {
+            throw new FatalException("Portfolio worker failed.", e);
+        }
+        finally
+        {
+            stop.set(true);
+            pool.shutdown();
+            awaitWorkers(pool);
+        }
+    }
+
+    // the losers see the stop flag at their next decision; waiting keeps their copies and statistics
+    // from outliving the race
+    private static void awaitWorkers(ExecutorService pool)
+    {
+        try
+        {
+            if (!pool.awaitTermination(SHUTDOWN_TIMEOUT, TimeUnit.SECONDS))
+            {
+                System.err.println("Portfolio workers still running after " + SHUTDOWN_TIMEOUT + " seconds.");
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void run()
+    {
+        io.silence(true);
+
+        long start = System.nanoTime();
+        CDCL winner = race();
+        long finish = System.nanoTime();
+
+        io.silence(false);
+
+        CDCL.report(io, winner, finish - start);
+    }
+}
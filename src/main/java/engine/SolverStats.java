@@ -0,0 +1,221 @@
+package engine;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// counters the solver bumps as it goes; exposed as an MBean and, optionally, as a periodic status line
+public class SolverStats implements SolverStatsMBean
+{
+    private static final AtomicInteger instances = new AtomicInteger();
+
+    // only the solver thread writes these, monitors read them racily and may see slightly old values
+    private long decisions;
+    private long propagations;
+    private long conflicts;
+    private long restarts;
+    private long lbdSum;
+    private long sizeSum;
+    private int learnedClauses;
+    private long databaseBytes;
+    private long start = System.nanoTime();
+
+    private ObjectName name;
+    private ScheduledExecutorService reporter;
+
+    void decision()
+    {
+        decisions++;
+    }
+
+    void propagated(int count)
+    {
+        propagations += count;
+    }
+
+    void restart()
+    {
+        restarts++;
+    }
+
+    void conflict(int size, int lbd)
+    {
+        conflicts++;
+        sizeSum += size;
+        lbdSum += lbd;
+    }
+
+    void database(int learnedClauses, int arenaCapacity)
+    {
+        this.learnedClauses = learnedClauses;
+        this.databaseBytes = 4L * arenaCapacity;
+    }
+
+    @Override
+    public long getDecisions()
+    {
+        return decisions;
+    }
+
+    @Override
+    public long getPropagations()
+    {
+        return propagations;
+    }
+
+    @Override
+    public long getConflicts()
+    {
+        return conflicts;
+    }
+
+    @Override
+    public long getRestarts()
+    {
+        return restarts;
+    }
+
+    @Override
+    public int getLearnedClauses()
+    {
+        return learnedClauses;
+    }
+
+    @Override
+    public double getAverageLBD()
+    {
+        long count = conflicts;
+        return count == 0 ? 0 : (double) lbdSum / count;
+    }
+
+    @Override
+    public double getAverageSize()
+    {
+        long count = conflicts;
+        return count == 0 ? 0 : (double) sizeSum / count;
+    }
+
+    @Override
+    public long getClauseDatabaseBytes()
+    {
+        return databaseBytes;
+    }
+
+    @Override
+    public double getElapsedSeconds()
+    {
+        return (System.nanoTime() - start) / 1e9;
+    }
+
+    @Override
+    public double getConflictsPerSecond()
+    {
+        return conflicts / getElapsedSeconds();
+    }
+
+    @Override
+    public double getPropagationsPerSecond()
+    {
+        return propagations / getElapsedSeconds();
+    }
+
+    // registers the MBean as SATSolver:type=SolverStats,name=<label>,id=<n>, and prints a status line every
+    // period milliseconds to stderr when the period is positive; statistics are optional, so a failed
+    // registration only gets a warning
+    public void monitor(String label, long period)
+    {
+        try
+        {
+            name = new ObjectName("SATSolver:type=SolverStats,name=" + ObjectName.quote(label)
+                    + ",id=" + instances.incrementAndGet());
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+        }
+        catch (JMException e)
+        {
+            System.err.println("Solver statistics not registered: " + e);
+            name = null;
+        }
+
+        if (period <= 0)
+            return;
+
+        reporter = Executors.newSingleThreadScheduledExecutor(runnable ->
+        {
+            Thread thread = new Thread(runnable, "stats-" + label);
+            thread.setDaemon(true);
+            return thread;
+        });
+        reporter.scheduleAtFixedRate(new Status(label, System.err, period), period, period, TimeUnit.MILLISECONDS);
+    }
+
+    public void close()
+    {
+        if (reporter != null)
+        {
+            reporter.shutdownNow();
+            reporter = null;
+        }
+
+        if (name != null)
+        {
+            try
+            {
+                MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+                if (server.isRegistered(name))
+                    server.unregisterMBean(name);
+            }
+            catch (JMException e)
+            {
+                System.err.println("Solver statistics not unregistered: " + e);
+            }
+            name = null;
+        }
+    }
+
+    // rates are over the last period, so a stuck solver shows up as zeros rather than a slowly sinking average
+    private class Status implements Runnable
+    {
+        private String label;
+        private PrintStream out;
+        private double seconds;
+        private long lastDecisions;
+        private long lastPropagations;
+        private long lastConflicts;
+
+        private Status(String label, PrintStream out, long period)
+        {
+            this.label = label;
+            this.out = out;
+            this.seconds = period / 1000.0;
+        }
+
+        @Override
+        public void run()
+        {
+            long decisions = getDecisions();
+            long propagations = getPropagations();
+            long conflicts = getConflicts();
+
+            out.println(String.format(Locale.ROOT,
+                    "[%s] %.1fs decisions %d (%.0f/s) propagations %d (%.0f/s) conflicts %d (%.0f/s) restarts %d "
+                            + "learned %d lbd %.2f size %.2f db %.1f MB",
+                    label, getElapsedSeconds(),
+                    decisions, (decisions - lastDecisions) / seconds,
+                    propagations, (propagations - lastPropagations) / seconds,
+                    conflicts, (conflicts - lastConflicts) / seconds,
+                    getRestarts(), getLearnedClauses(), getAverageLBD(), getAverageSize(),
+                    getClauseDatabaseBytes() / (1024.0 * 1024.0)));
+
+            lastDecisions = decisions;
+            lastPropagations = propagations;
+            lastConflicts = conflicts;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package engine;
+
+public interface SolverStatsMBean
+{
+    long getDecisions();
+    long getPropagations();
+    long getConflicts();
+    long getRestarts();
+    int getLearnedClauses();
+    double getAverageLBD();
+    double getAverageSize();
+    long getClauseDatabaseBytes();
+    double getElapsedSeconds();
+    double getConflictsPerSecond();
+    double getPropagationsPerSecond();
+}
@@ -0,0 +1,157 @@
+package io;
+
+import exception.FatalException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+// the caller fills large buffers and a background thread writes them out; the caller only waits
+// when every buffer is still queued for the disk
+public class AsyncWriter implements AutoCloseable
+{
+    private static final int BUFFERS = 4;
+
+    private static final ByteBuffer END = ByteBuffer.allocate(0);
+
+    private FileChannel channel;
+    private BlockingQueue<ByteBuffer> free = new ArrayBlockingQueue<>(BUFFERS);
+    private BlockingQueue<ByteBuffer> filled = new ArrayBlockingQueue<>(BUFFERS + 1);
+    private ByteBuffer current;
+    private Thread writer;
+    private volatile IOException failure;
+
+    public AsyncWriter(String path, int bufferSize)
+    {
+        try
+        {
+            channel = FileChannel.open(Paths.get(path), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+        }
+        catch (IOException e)
+        {
+            throw new FatalException("Can't open " + path + " for writing.", e);
+        }
+
+        for (int i = 0; i < BUFFERS - 1; i++)
+        {
+            free.add(ByteBuffer.allocateDirect(bufferSize));
+        }
+        current = ByteBuffer.allocateDirect(bufferSize);
+
+        writer = new Thread(this::write, "async-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    public void put(byte value)
+    {
+        if (!current.hasRemaining())
+        {
+            swap();
+        }
+        current.put(value);
+    }
+
+    // LEB128: seven bits per byte, lowest first, the high bit set on all but the last
+    public void putUnsigned(int value)
+    {
+        if (current.remaining() < 5)
+        {
+            swap();
+        }
+        while ((value & ~0x7f) != 0)
+        {
+            current.put((byte) ((value & 0x7f) | 0x80));
+            value >>>= 7;
+        }
+        current.put((byte) value);
+    }
+
+    private void swap()
+    {
+        if (failure != null)
+        {
+            throw new FatalException("Can't write output.", failure);
+        }
+
+        try
+        {
+            current.flip();
+            filled.put(current);
+            current = free.take();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new FatalException("Interrupted while writing output.", e);
+        }
+    }
+
+    // writes out whatever is still buffered
+    @Override
+    public void close()
+    {
+        try
+        {
+            current.flip();
+            filled.put(current);
+            filled.put(END);
+            writer.join();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new FatalException("Interrupted while writing output.", e);
+        }
+        finally
+        {
+            try
+            {
+                channel.close();
+            }
+            catch (IOException e)
+            {
+                failure = e;
+            }
+        }
+
+        if (failure != null)
+        {
+            throw new FatalException("Can't write output.", failure);
+        }
+    }
+
+    // after a failure buffers are still recycled, so the caller never blocks; it finds out on the next swap
+    private void write()
+    {
+        try
+        {
+            for (ByteBuffer buffer = filled.take(); buffer != END; buffer = filled.take())
+            {
+                try
+                {
+                    while (failure == null && buffer.hasRemaining())
+                    {
+                        channel.write(buffer);
+                    }
+                }
+                catch (IOException e)
+                {
+                    failure = e;
+                }
+
+                buffer.clear();
+                free.put(buffer);
+            }
+        }
+        catch (InterruptedException ignored)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
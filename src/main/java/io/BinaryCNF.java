@@ -0,0 +1,199 @@
+package io;
+
+import exception.FatalException;
+import sat.ClauseArena;
+import sat.Formula;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+// snapshot layout (little endian ints): magic, version, variables, declared clauses,
+// stored clauses n, literal count, n + 1 clause offsets, packed literals
+public class BinaryCNF extends DimacsCNF
+{
+    static final int MAGIC = 0x53415442, // "SATB"
+                     VERSION = 1,
+                     HEADER = 6;
+
+    public BinaryCNF(String url)
+    {
+        super(url);
+    }
+
+    public static boolean isSnapshot(String url)
+    {
+        try (FileChannel channel = FileChannel.open(Paths.get(url), StandardOpenOption.READ))
+        {
+            ByteBuffer magic = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            return channel.read(magic) == 4 && magic.getInt(0) == MAGIC;
+        }
+        catch (IOException e)
+        {
+            return false;
+        }
+    }
+
+    @Override
+    public Formula read()
+    {
+        try (FileChannel channel = FileChannel.open(Paths.get(url), StandardOpenOption.READ))
+        {
+            if (channel.size() > Integer.MAX_VALUE)
+            {
+                throw new FatalException("Snapshot is too large to be mapped.");
+            }
+
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            IntBuffer data = mapped.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+
+            if (data.remaining() < HEADER || data.get(0) != MAGIC || data.get(1) != VERSION)
+            {
+                throw new FatalException("Not a formula snapshot.");
+            }
+
+            int literalNumber = data.get(2);
+            int clauseNumber = data.get(3);
+            int count = data.get(4);
+            int literalCount = data.get(5);
+            if (literalNumber < 0 || clauseNumber < 0 || count < 0 || literalCount < 0)
+            {
+                throw new FatalException("Not a formula snapshot.");
+            }
+            if (data.remaining() != (long) HEADER + count + 1 + literalCount)
+            {
+                throw new FatalException("Truncated formula snapshot.");
+            }
+
+            IntBuffer offsets = slice(data, HEADER, count + 1);
+            IntBuffer literals = slice(data, HEADER + count + 1, literalCount);
+            check(offsets, literals, count, literalNumber);
+
+            Formula formula = new Formula(ClauseArena.footprint(count, literalCount));
+            for (int i = 0; i < count; i++)
+            {
+                formula.append(literals, offsets.get(i + 1) - offsets.get(i));
+            }
+
+            formula.setClauseNumber(clauseNumber);
+            formula.setLiteralNumber(literalNumber);
+            return formula;
+        }
+        catch (IOException e)
+        {
+            throw new FatalException("Input file not found.", e);
+        }
+    }
+
+    // clauses are packed back to back and never empty, and every literal names a declared variable
+    private static void check(IntBuffer offsets, IntBuffer literals, int count, int literalNumber)
+    {
+        if (offsets.get(0) != 0 || offsets.get(count) != literals.limit())
+        {
+            throw new FatalException("Not a formula snapshot.");
+        }
+
+        for (int i = 0; i < count; i++)
+        {
+            if (offsets.get(i + 1) <= offsets.get(i))
+            {
+                throw new FatalException("Not a formula snapshot.");
+            }
+        }
+
+        for (int i = 0; i < literals.limit(); i++)
+        {
+            int literal = literals.get(i);
+            if (literal == 0 || literal < -literalNumber || literal > literalNumber)
+            {
+                throw new FatalException("Not a formula snapshot.");
+            }
+        }
+    }
+
+    private static IntBuffer slice(IntBuffer data, int from, int length)
+    {
+        IntBuffer view = data.duplicate();
+        view.position(from);
+        view.limit(from + length);
+        return view.slice();
+    }
+
+    public static void save(Formula formula, String url)
+    {
+        ClauseArena arena = formula.getArena();
+        int count = 0, literalCount = 0;
+        for (int ref = arena.begin(); ref < arena.end(); ref = arena.next(ref))
+        {
+            if (!arena.isLearned(ref))
+            {
+                count++;
+                literalCount += arena.size(ref);
+            }
+        }
+
+        try (FileChannel channel = FileChannel.open(Paths.get(url), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE))
+        {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+            put(channel, buffer, MAGIC);
+            put(channel, buffer, VERSION);
+            put(channel, buffer, formula.getLiteralNumber());
+            put(channel, buffer, formula.getClauseNumber());
+            put(channel, buffer, count);
+            put(channel, buffer, literalCount);
+
+            int offset = 0;
+            put(channel, buffer, offset);
+            for (int ref = arena.begin(); ref < arena.end(); ref = arena.next(ref))
+            {
+                if (!arena.isLearned(ref))
+                {
+                    offset += arena.size(ref);
+                    put(channel, buffer, offset);
+                }
+            }
+
+            for (int ref = arena.begin(); ref < arena.end(); ref = arena.next(ref))
+            {
+                if (!arena.isLearned(ref))
+                {
+                    for (int i = 0; i < arena.size(ref); i++)
+                    {
+                        put(channel, buffer, arena.literal(ref, i));
+                    }
+                }
+            }
+
+            flush(channel, buffer);
+        }
+        catch (IOException e)
+        {
+            throw new FatalException("Can't write formula snapshot.", e);
+        }
+    }
+
+    private static void put(FileChannel channel, ByteBuffer buffer, int value) throws IOException
+    {
+        if (buffer.remaining() < 4)
+        {
+            flush(channel, buffer);
+        }
+        buffer.putInt(value);
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException
+    {
+        buffer.flip();
+        while (buffer.hasRemaining())
+        {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,158 @@
+package io;
+
+import exception.FatalException;
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
+import org.tukaani.xz.XZInputStream;
+import sat.Formula;
+
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.GZIPInputStream;
+
+// decompresses on a background thread and hands filled buffers to the parser
+public class CompressedDimacsCNF extends MappedDimacsCNF
+{
+    private static final int BUFFER_SIZE = 1 << 20,
+                             BUFFERS = 4;
+
+    private static final ByteBuffer END = ByteBuffer.allocate(0);
+
+    private volatile Exception failure;
+
+    public CompressedDimacsCNF(String url)
+    {
+        super(url);
+    }
+
+    @Override
+    public Formula read()
+    {
+        InputStream input;
+        try
+        {
+            input = open();
+        }
+        catch (FileNotFoundException e)
+        {
+            throw new FatalException("Input file not found.", e);
+        }
+        catch (IOException e)
+        {
+            throw new FatalException("Can't open compressed input.", e);
+        }
+
+        if (input == null)
+        {
+            return super.read();
+        }
+
+        BlockingQueue<ByteBuffer> filled = new ArrayBlockingQueue<>(BUFFERS + 1);
+        BlockingQueue<ByteBuffer> free = new ArrayBlockingQueue<>(BUFFERS);
+        for (int i = 0; i < BUFFERS; i++)
+        {
+            free.add(ByteBuffer.allocate(BUFFER_SIZE));
+        }
+
+        Thread decompressor = new Thread(() -> decompress(input, free, filled), "dimacs-decompressor");
+        decompressor.setDaemon(true);
+        decompressor.start();
+
+        DimacsParser parser = new DimacsParser();
+        try
+        {
+            ByteBuffer buffer = filled.take();
+            while (buffer != END)
+            {
+                parser.parse(buffer);
+                buffer.clear();
+                free.put(buffer);
+                buffer = filled.take();
+            }
+        }
+        catch (InterruptedException e)
+        {
+            decompressor.interrupt();
+            Thread.currentThread().interrupt();
+            throw new FatalException("Interrupted while reading input.", e);
+        }
+        catch (RuntimeException e)
+        {
+            decompressor.interrupt();
+            throw e;
+        }
+
+        if (failure != null)
+        {
+            throw new FatalException("Can't decompress input.", failure);
+        }
+
+        return parser.finish();
+    }
+
+    // null for plain text, which is better served by mapping the file
+    private InputStream open() throws IOException
+    {
+        BufferedInputStream input = new BufferedInputStream(new FileInputStream(url), BUFFER_SIZE);
+        byte[] magic = new byte[6];
+
+        input.mark(magic.length);
+        int length = input.read(magic);
+        input.reset();
+
+        if (length >= 2 && (magic[0] & 0xff) == 0x1f && (magic[1] & 0xff) == 0x8b)
+            return new GZIPInputStream(input, BUFFER_SIZE);
+
+        if (length >= 6 && (magic[0] & 0xff) == 0xfd && magic[1] == '7' && magic[2] == 'z'
+                && magic[3] == 'X' && magic[4] == 'Z' && magic[5] == 0)
+            return new XZInputStream(input);
+
+        if (length >= 3 && magic[0] == 'B' && magic[1] == 'Z' && magic[2] == 'h')
+            return new BZip2CompressorInputStream(input);
+
+        input.close();
+        return null;
+    }
+
+    private void decompress(InputStream input, BlockingQueue<ByteBuffer> free, BlockingQueue<ByteBuffer> filled)
+    {
+        try (InputStream in = input)
+        {
+            int read = 0;
+            while (read != -1)
+            {
+                ByteBuffer buffer = free.take();
+                byte[] array = buffer.array();
+                int total = 0;
+                while (total < array.length && (read = in.read(array, total, array.length - total)) != -1)
+                {
+                    total += read;
+                }
+
+                if (total > 0)
+                {
+                    buffer.limit(total);
+                    filled.put(buffer);
+                }
+            }
+        }
+        catch (IOException | RuntimeException e)
+        {
+            failure = e;
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        finally
+        {
+            // the queue has room for every buffer and END, so this never waits
+            filled.offer(END);
+        }
+    }
+}
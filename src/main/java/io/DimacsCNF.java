@@ -9,7 +9,7 @@ import java.util.Scanner;
 
 public class DimacsCNF implements IOManager
 {
-    private String url;
+    protected String url;
     private boolean quiet;
 
     public DimacsCNF(String url)
@@ -0,0 +1,203 @@
+package io;
+
+import exception.FatalException;
+import sat.Clause;
+import sat.Formula;
+
+import java.nio.ByteBuffer;
+
+// incremental DIMACS scanner: chunks may end anywhere, even in the middle of a number
+public class DimacsParser
+{
+    private static final int LINE_START = 0,
+                             BETWEEN = 1,
+                             NUMBER = 2,
+                             COMMENT = 3,
+                             HEADER = 4,
+                             DONE = 5;
+
+    private Formula formula = new Formula();
+    private Clause clause = new Clause();
+    private StringBuilder header = new StringBuilder();
+    private int state = LINE_START;
+    private boolean negative;
+    private long number;
+    private int literalNumber = -1;
+    private int clauseNumber = -1;
+
+    public void parse(ByteBuffer chunk)
+    {
+        while (chunk.hasRemaining() && state != DONE)
+        {
+            byte b = chunk.get();
+
+            switch (state)
+            {
+                case COMMENT:
+                    if (b == '\n')
+                        state = LINE_START;
+                    break;
+
+                case HEADER:
+                    if (b == '\n')
+                    {
+                        parseHeader(header.toString());
+                        state = LINE_START;
+                    }
+                    else
+                    {
+                        header.append((char) b);
+                    }
+                    break;
+
+                case NUMBER:
+                    if (b >= '0' && b <= '9')
+                    {
+                        number = number * 10 + (b - '0');
+                        if (number > Integer.MAX_VALUE)
+                            throw new FatalException("Can't parse numbers.");
+                    }
+                    else if (isSpace(b))
+                    {
+                        finishNumber();
+                        state = b == '\n' ? LINE_START : BETWEEN;
+                    }
+                    else
+                    {
+                        throw new FatalException("Can't parse numbers.");
+                    }
+                    break;
+
+                default:
+                    scan(b);
+            }
+        }
+    }
+
+    private void scan(byte b)
+    {
+        if (isSpace(b))
+        {
+            if (b == '\n')
+                state = LINE_START;
+            return;
+        }
+
+        if (state == LINE_START)
+        {
+            if (b == 'c')
+            {
+                state = COMMENT;
+                return;
+            }
+
+            if (b == 'p')
+            {
+                if (literalNumber != -1)
+                    throw new FatalException("Multiple definitions of the parameters.");
+
+                header.setLength(0);
+                header.append('p');
+                state = HEADER;
+                return;
+            }
+
+            // SATLIB files end with a "%" line followed by a stray "0"
+            if (b == '%')
+            {
+                state = DONE;
+                return;
+            }
+        }
+
+        if (literalNumber == -1)
+            throw new FatalException("Invalid parameters");
+
+        negative = b == '-';
+        number = 0;
+        if (!negative)
+        {
+            if (b < '0' || b > '9')
+                throw new FatalException("Can't parse numbers.");
+            number = b - '0';
+        }
+        state = NUMBER;
+    }
+
+    private static boolean isSpace(byte b)
+    {
+        return b == ' ' || b == '\t' || b == '\n' || b == '\r';
+    }
+
+    private void finishNumber()
+    {
+        int literal = (int) (negative ? -number : number);
+        if (literal == 0)
+        {
+            if (negative)
+                throw new FatalException("Can't parse numbers.");
+
+            formula.append(clause);
+            clause.clear();
+            return;
+        }
+
+        if (number > literalNumber)
+            throw new FatalException("Literal " + literal + " is out of range.");
+
+        clause.add(literal);
+    }
+
+    private void parseHeader(String line)
+    {
+        String[] tokens = line.trim().split("\\s+");
+        if (tokens.length != 4)
+        {
+            throw new FatalException("Malformed input.");
+        }
+
+        if (!tokens[1].equals("cnf"))
+        {
+            throw new FatalException("Can't solve non-cnf formula.");
+        }
+
+        try
+        {
+            literalNumber = Integer.parseInt(tokens[2]);
+            clauseNumber = Integer.parseInt(tokens[3]);
+        }
+        catch (NumberFormatException e)
+        {
+            throw new FatalException("Can't parse numbers.", e);
+        }
+
+        if (literalNumber < 0 || clauseNumber < 0)
+        {
+            throw new FatalException("Invalid parameters.");
+        }
+    }
+
+    public Formula finish()
+    {
+        if (state == NUMBER)
+            finishNumber();
+        else if (state == HEADER)
+            parseHeader(header.toString());
+
+        // tolerate a missing terminating 0 on the last clause
+        if (clause.size() > 0)
+        {
+            formula.append(clause);
+            clause.clear();
+        }
+
+        if (clauseNumber == -1)
+        {
+            throw new FatalException("Invalid parameters");
+        }
+
+        formula.setClauseNumber(clauseNumber);
+        formula.setLiteralNumber(literalNumber);
+        return formula;
+    }
+}
@@ -0,0 +1,41 @@
+package io;
+
+import exception.FatalException;
+import sat.Formula;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+public class MappedDimacsCNF extends DimacsCNF
+{
+    // a single mapping can't exceed 2GB, so bigger files are mapped window by window
+    private static final long WINDOW = 1L << 30;
+
+    public MappedDimacsCNF(String url)
+    {
+        super(url);
+    }
+
+    @Override
+    public Formula read()
+    {
+        DimacsParser parser = new DimacsParser();
+
+        try (FileChannel channel = FileChannel.open(Paths.get(url), StandardOpenOption.READ))
+        {
+            long size = channel.size();
+            for (long position = 0; position < size; position += WINDOW)
+            {
+                parser.parse(channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW, size - position)));
+            }
+        }
+        catch (IOException e)
+        {
+            throw new FatalException("Input file not found.", e);
+        }
+
+        return parser.finish();
+    }
+}
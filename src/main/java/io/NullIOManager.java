@@ -0,0 +1,24 @@
+package io;
+
+import exception.FatalException;
+import sat.Formula;
+
+// for solvers driven from code, which have no input file and nowhere to print
+public class NullIOManager implements IOManager
+{
+    @Override
+    public Formula read()
+    {
+        throw new FatalException("Nothing to read from.");
+    }
+
+    @Override
+    public void write(String sat)
+    {
+    }
+
+    @Override
+    public void silence(boolean val)
+    {
+    }
+}
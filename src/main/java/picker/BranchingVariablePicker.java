@@ -7,4 +7,24 @@ import sat.Pair;
 public interface BranchingVariablePicker
 {
     Pair pick(Formula formula, Assignment assignment);
+
+    default void attach(Formula formula, Assignment assignment)
+    {
+    }
+
+    default void bump(int variable)
+    {
+    }
+
+    default void decay()
+    {
+    }
+
+    default void unassigned(int variable)
+    {
+    }
+
+    default void grow(int literalNumber)
+    {
+    }
 }
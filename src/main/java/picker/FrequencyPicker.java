@@ -15,10 +15,20 @@ public class FrequencyPicker implements BranchingVariablePicker
         this.freqUpdater = freqUpdater;
     }
 
+    @Override
+    public void attach(Formula formula, Assignment assignment)
+    {
+        formula.attachFreqUpdater(freqUpdater);
+        assignment.attachFreqUpdater(freqUpdater);
+        assignment.clear();
+    }
+
     @Override
     public Pair pick(Formula formula, Assignment assignment)
     {
-        return new Pair(freqUpdater.getLast(), true);
+        // the updater hands out literals, pickers return a variable and its phase
+        int literal = freqUpdater.getLast();
+        return new Pair(Math.abs(literal), literal > 0);
     }
 
 }
@@ -0,0 +1,29 @@
+package picker;
+
+import sat.Assignment;
+import sat.Formula;
+
+public interface PhasePicker
+{
+    boolean pick(int variable, boolean suggested);
+
+    default void attach(Formula formula, Assignment assignment)
+    {
+    }
+
+    default void trail(Assignment assignment, int consistent)
+    {
+    }
+
+    default void unassigned(int literal)
+    {
+    }
+
+    default void conflict()
+    {
+    }
+
+    default void grow(int literalNumber)
+    {
+    }
+}
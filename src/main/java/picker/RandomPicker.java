@@ -4,19 +4,26 @@ import sat.Assignment;
 import sat.Formula;
 import sat.Pair;
 
-import java.util.*;
+import java.util.Random;
 
 public class RandomPicker implements BranchingVariablePicker
 {
+    private Random rnd;
+
+    public RandomPicker()
+    {
+        this(1);
+    }
+
+    public RandomPicker(long seed)
+    {
+        rnd = new Random(seed);
+    }
+
     @Override
     public Pair pick(Formula formula, Assignment assignment)
     {
-        Set<Integer> unassigned = assignment.getUnassigned();
-
-        List<Integer> list = new ArrayList<>(unassigned);
-        Random rnd = new Random(1);
-        Collections.shuffle(list, rnd);
-        int random = rnd.nextInt(10);
-        return new Pair(list.get(0), random % 2 == 0);
+        int variable = assignment.getUnassigned(rnd.nextInt(assignment.getUnassignedCount()));
+        return new Pair(variable, rnd.nextBoolean());
     }
 }
@@ -0,0 +1,147 @@
+package picker;
+
+import sat.Assignment;
+import sat.Formula;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class SavedPhasePicker implements PhasePicker
+{
+    private static final byte NONE = 0,
+                              TRUE = 1,
+                              FALSE = 2;
+
+    private static final int BEST = 0,
+                             ORIGINAL = 1,
+                             INVERTED = 2,
+                             RANDOM = 3;
+
+    // B O B I B R, as in CaDiCaL: always come back to the best phase in between
+    private static final int[] SCHEDULE = { BEST, ORIGINAL, BEST, INVERTED, BEST, RANDOM };
+
+    private byte[] saved;
+    private byte[] target;
+    private byte[] best;
+    private int targetSize;
+    private int bestSize;
+    private boolean useTarget;
+    private int rephaseInterval;
+    private int nextRephase;
+    private int rephaseCount;
+    private int conflicts;
+    private Random random;
+
+    public SavedPhasePicker()
+    {
+        this(true, 1000, 1);
+    }
+
+    public SavedPhasePicker(boolean useTarget, int rephaseInterval, long seed)
+    {
+        this.useTarget = useTarget;
+        this.rephaseInterval = rephaseInterval;
+        this.nextRephase = rephaseInterval;
+        this.random = new Random(seed);
+    }
+
+    @Override
+    public void attach(Formula formula, Assignment assignment)
+    {
+        saved = new byte[formula.getLiteralNumber() + 1];
+        target = new byte[formula.getLiteralNumber() + 1];
+        best = new byte[formula.getLiteralNumber() + 1];
+    }
+
+    @Override
+    public void grow(int literalNumber)
+    {
+        saved = Arrays.copyOf(saved, literalNumber + 1);
+        target = Arrays.copyOf(target, literalNumber + 1);
+        best = Arrays.copyOf(best, literalNumber + 1);
+    }
+
+    @Override
+    public boolean pick(int variable, boolean suggested)
+    {
+        if (useTarget && target[variable] != NONE)
+            return target[variable] == TRUE;
+
+        if (saved[variable] != NONE)
+            return saved[variable] == TRUE;
+
+        return suggested;
+    }
+
+    @Override
+    public void trail(Assignment assignment, int consistent)
+    {
+        if (useTarget && consistent > targetSize)
+        {
+            copy(assignment, consistent, target);
+            targetSize = consistent;
+        }
+
+        if (consistent > bestSize)
+        {
+            copy(assignment, consistent, best);
+            bestSize = consistent;
+        }
+    }
+
+    private void copy(Assignment assignment, int size, byte[] phases)
+    {
+        for (int i = 0; i < size; i++)
+        {
+            int literal = assignment.getTrail(i);
+            phases[literal < 0 ? -literal : literal] = literal > 0 ? TRUE : FALSE;
+        }
+    }
+
+    @Override
+    public void unassigned(int literal)
+    {
+        saved[literal < 0 ? -literal : literal] = literal > 0 ? TRUE : FALSE;
+    }
+
+    @Override
+    public void conflict()
+    {
+        if (rephaseInterval <= 0 || ++conflicts < nextRephase)
+            return;
+
+        rephase(SCHEDULE[rephaseCount++ % SCHEDULE.length]);
+        nextRephase = conflicts + rephaseInterval * (rephaseCount + 1);
+    }
+
+    private void rephase(int mode)
+    {
+        for (int variable = 1; variable < saved.length; variable++)
+        {
+            switch (mode)
+            {
+                case BEST:
+                    if (best[variable] != NONE)
+                        saved[variable] = best[variable];
+                    break;
+                case ORIGINAL:
+                    saved[variable] = NONE;
+                    break;
+                case INVERTED:
+                    if (saved[variable] != NONE)
+                        saved[variable] = saved[variable] == TRUE ? FALSE : TRUE;
+                    break;
+                case RANDOM:
+                    saved[variable] = random.nextBoolean() ? TRUE : FALSE;
+                    break;
+            }
+            target[variable] = NONE;
+        }
+
+        targetSize = 0;
+        if (mode == BEST)
+        {
+            bestSize = 0;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package picker;
+
+import sat.Assignment;
+import sat.Formula;
+import sat.Pair;
+import util.IndexedHeap;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class VSIDSPicker implements BranchingVariablePicker
+{
+    private static final double RESCALE_LIMIT = 1e100;
+
+    private double[] activity;
+    private IndexedHeap heap;
+    private double increment = 1;
+    private double decay;
+    private Random random;
+
+    public VSIDSPicker()
+    {
+        this(0.95);
+    }
+
+    public VSIDSPicker(double decay)
+    {
+        this.decay = decay;
+    }
+
+    // a seed breaks the initial ties randomly, so solvers running side by side start apart
+    public VSIDSPicker(double decay, long seed)
+    {
+        this(decay);
+        this.random = new Random(seed);
+    }
+
+    @Override
+    public void attach(Formula formula, Assignment assignment)
+    {
+        activity = new double[formula.getLiteralNumber() + 1];
+        if (random != null)
+        {
+            for (int variable = 1; variable < activity.length; variable++)
+            {
+                activity[variable] = random.nextDouble() * 1e-5;
+            }
+        }
+        heap = new IndexedHeap(activity);
+        for (int variable = 1; variable <= formula.getLiteralNumber(); variable++)
+        {
+            heap.insert(variable);
+        }
+    }
+
+    @Override
+    public void grow(int literalNumber)
+    {
+        int old = activity.length;
+        activity = Arrays.copyOf(activity, literalNumber + 1);
+        heap.grow(activity);
+        for (int variable = old; variable <= literalNumber; variable++)
+        {
+            if (random != null)
+            {
+                activity[variable] = random.nextDouble() * 1e-5;
+            }
+            heap.insert(variable);
+        }
+    }
+
+    @Override
+    public Pair pick(Formula formula, Assignment assignment)
+    {
+        int variable = heap.removeMax();
+        while (assignment.getStatus(variable) != Assignment.Status.UNKNOWN)
+        {
+            variable = heap.removeMax();
+        }
+
+        return new Pair(variable, false);
+    }
+
+    @Override
+    public void bump(int variable)
+    {
+        activity[variable] += increment;
+        if (activity[variable] > RESCALE_LIMIT)
+        {
+            for (int i = 1; i < activity.length; i++)
+            {
+                activity[i] /= RESCALE_LIMIT;
+            }
+            increment /= RESCALE_LIMIT;
+        }
+
+        heap.increased(variable);
+    }
+
+    @Override
+    public void decay()
+    {
+        // growing the increment is equivalent to decaying every activity
+        increment /= decay;
+    }
+
+    @Override
+    public void unassigned(int variable)
+    {
+        heap.insert(variable);
+    }
+}
@@ -0,0 +1,230 @@
+package preprocessing;
+
+import sat.Assignment;
+import sat.Clause;
+import sat.ClauseArena;
+import sat.Formula;
+import util.IntVector;
+
+import java.util.Arrays;
+
+// vivification and learned clause subsumption between searches; must be called at decision level 0
+public class Inprocessor
+{
+    private static final int PROPAGATION_BUDGET = 200_000,
+                             SUBSUMPTION_BUDGET = 10_000_000;
+
+    private Formula formula;
+    private Assignment assignment;
+    private Clause clause = new Clause();
+    private boolean[] mark;
+    private int budget;
+
+    private int shortenedCount;
+    private int subsumedCount;
+
+    public Inprocessor(Formula formula, Assignment assignment)
+    {
+        this.formula = formula;
+        this.assignment = assignment;
+        this.mark = new boolean[2 * formula.getLiteralNumber() + 2];
+    }
+
+    public void grow(int literalNumber)
+    {
+        mark = new boolean[2 * literalNumber + 2];
+    }
+
+    public int getShortenedCount()
+    {
+        return shortenedCount;
+    }
+
+    public int getSubsumedCount()
+    {
+        return subsumedCount;
+    }
+
+    // false when the formula turned out to be unsatisfiable
+    public boolean run()
+    {
+        boolean result = vivify();
+        if (result)
+        {
+            subsume();
+        }
+        formula.compact(assignment);
+        return result;
+    }
+
+    private static int index(int literal)
+    {
+        return literal < 0 ? -2 * literal + 1 : 2 * literal;
+    }
+
+    // kept learned clauses first, since they are the ones conflict analysis left long
+    private boolean vivify()
+    {
+        ClauseArena arena = formula.getArena();
+        IntVector candidates = new IntVector();
+
+        for (int i = 0; i < formula.getLearnedCount(); i++)
+        {
+            int ref = formula.getLearned(i);
+            if (arena.getTier(ref) != ClauseArena.LOCAL && isCandidate(arena, ref))
+                candidates.add(ref);
+        }
+        for (int ref = arena.begin(); ref < arena.end(); ref = arena.next(ref))
+        {
+            if (!arena.isLearned(ref) && isCandidate(arena, ref))
+                candidates.add(ref);
+        }
+
+        budget = PROPAGATION_BUDGET;
+        for (int i = 0; i < candidates.size() && budget > 0; i++)
+        {
+            if (!vivify(candidates.get(i)))
+                return false;
+        }
+
+        return true;
+    }
+
+    private static boolean isCandidate(ClauseArena arena, int ref)
+    {
+        return arena.size(ref) > 2 && !arena.isDeleted(ref) && !arena.isVivified(ref);
+    }
+
+    // assumes the clause false one literal at a time; a conflict or an implied literal ends it early
+    private boolean vivify(int ref)
+    {
+        ClauseArena arena = formula.getArena();
+        int size = arena.size(ref);
+        int start = assignment.size();
+        clause.clear();
+
+        for (int i = 0; i < size; i++)
+        {
+            int literal = arena.literal(ref, i);
+            Assignment.Status status = assignment.getStatus(literal);
+
+            if (status == Assignment.Status.TRUE)
+            {
+                if (assignment.getLevel(Math.abs(literal)) == 0)
+                {
+                    // the literals before it may still be assumed
+                    assignment.backtrack(0);
+                    formula.delete(ref);
+                    return true;
+                }
+                clause.add(literal);
+                break;
+            }
+
+            if (status == Assignment.Status.FALSE)
+                continue;
+
+            clause.add(literal);
+            assignment.newDecisionLevel();
+            assignment.add(-literal, Formula.NO_CLAUSE);
+            if (formula.propagate(assignment) != Formula.NO_CLAUSE)
+                break;
+        }
+
+        budget -= assignment.size() - start;
+        assignment.backtrack(0);
+
+        if (clause.size() == size)
+        {
+            arena.setVivified(ref);
+            return true;
+        }
+
+        if (clause.size() == 0)
+            return false;
+
+        shortenedCount++;
+        int copy = formula.replace(ref, clause, assignment);
+        formula.getArena().setVivified(copy);
+
+        return clause.size() > 1 || formula.propagate(assignment) == Formula.NO_CLAUSE;
+    }
+
+    // forward subsumption among learned clauses, shortest first; each clause is indexed under its first literal
+    private void subsume()
+    {
+        ClauseArena arena = formula.getArena();
+        int count = formula.getLearnedCount();
+        long[] order = new long[count];
+        int live = 0;
+
+        for (int i = 0; i < count; i++)
+        {
+            int ref = formula.getLearned(i);
+            if (!arena.isDeleted(ref))
+                order[live++] = ((long) arena.size(ref) << 32) | i;
+        }
+        Arrays.sort(order, 0, live);
+
+        IntVector[] occurrences = new IntVector[mark.length];
+        long steps = 0;
+
+        for (int k = 0; k < live && steps < SUBSUMPTION_BUDGET; k++)
+        {
+            int ref = formula.getLearned((int) order[k]);
+            int size = arena.size(ref);
+
+            for (int i = 0; i < size; i++)
+            {
+                mark[index(arena.literal(ref, i))] = true;
+            }
+
+            int subsumer = Formula.NO_CLAUSE;
+            for (int i = 0; i < size && subsumer == Formula.NO_CLAUSE; i++)
+            {
+                IntVector candidates = occurrences[index(arena.literal(ref, i))];
+                for (int j = 0; candidates != null && j < candidates.size(); j++)
+                {
+                    int other = candidates.get(j);
+                    steps += arena.size(other);
+                    if (contained(arena, other))
+                    {
+                        subsumer = other;
+                        break;
+                    }
+                }
+            }
+
+            for (int i = 0; i < size; i++)
+            {
+                mark[index(arena.literal(ref, i))] = false;
+            }
+
+            if (subsumer != Formula.NO_CLAUSE)
+            {
+                subsumedCount++;
+                arena.setTier(subsumer, Math.min(arena.getTier(subsumer), arena.getTier(ref)));
+                arena.setLBD(subsumer, Math.min(arena.getLBD(subsumer), arena.getLBD(ref)));
+                formula.delete(ref);
+                continue;
+            }
+
+            int first = index(arena.literal(ref, 0));
+            if (occurrences[first] == null)
+            {
+                occurrences[first] = new IntVector();
+            }
+            occurrences[first].add(ref);
+        }
+    }
+
+    private boolean contained(ClauseArena arena, int ref)
+    {
+        for (int i = 0; i < arena.size(ref); i++)
+        {
+            if (!mark[index(arena.literal(ref, i))])
+                return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,556 @@
+package preprocessing;
+
+import sat.Clause;
+import sat.ClauseArena;
+import sat.Formula;
+import util.IntVector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// SatELite style simplification: unit propagation, subsumption, self-subsuming resolution
+// and bounded variable elimination, keeping what is needed to rebuild a model of the input;
+// subsumption only runs backwards, from each queued clause to the clauses it may subsume
+public class Preprocessor
+{
+    private static final int OCCURRENCE_LIMIT = 16,
+                             RESOLVENT_LIMIT = 20;
+
+    private static final long STEP_LIMIT = 100_000_000L;
+
+    private Formula original;
+    private int literalNumber;
+
+    private List<int[]> clauses = new ArrayList<>();
+    private long[] signatures = new long[16];
+    private IntVector[] occurrences;
+    private byte[] values;
+    private boolean[] eliminated;
+    private boolean[] frozen;
+    private boolean[] mark;
+    private boolean unsat;
+    private long steps;
+
+    private IntVector units = new IntVector();
+    private IntVector queue = new IntVector();
+    private boolean[] queued = new boolean[16];
+
+    private ReconstructionStack stack = new ReconstructionStack();
+    private int eliminatedCount;
+    private int removedCount;
+
+    public Preprocessor(Formula original)
+    {
+        this.original = original;
+        this.literalNumber = original.getLiteralNumber();
+
+        occurrences = new IntVector[2 * literalNumber + 2];
+        for (int i = 0; i < occurrences.length; i++)
+        {
+            occurrences[i] = new IntVector();
+        }
+        values = new byte[literalNumber + 1];
+        eliminated = new boolean[literalNumber + 1];
+        frozen = new boolean[literalNumber + 1];
+        mark = new boolean[2 * literalNumber + 2];
+    }
+
+    public Formula getOriginal()
+    {
+        return original;
+    }
+
+    public ReconstructionStack getStack()
+    {
+        return stack;
+    }
+
+    public int getEliminatedCount()
+    {
+        return eliminatedCount;
+    }
+
+    public int getRemovedCount()
+    {
+        return removedCount;
+    }
+
+    // eliminated variables must never be the subject of assumptions or later additions
+    public void freeze(int variable)
+    {
+        frozen[variable] = true;
+    }
+
+    public Formula run()
+    {
+        ClauseArena arena = original.getArena();
+        int[] buffer = new int[16];
+        for (int ref = arena.begin(); ref < arena.end() && !unsat; ref = arena.next(ref))
+        {
+            if (arena.isLearned(ref))
+                continue;
+
+            int size = arena.size(ref);
+            if (buffer.length < size)
+                buffer = new int[size];
+            for (int i = 0; i < size; i++)
+            {
+                buffer[i] = arena.literal(ref, i);
+            }
+            addClause(buffer, size);
+        }
+
+        propagate();
+        subsume();
+
+        boolean changed = true;
+        while (changed && !unsat && steps < STEP_LIMIT)
+        {
+            changed = eliminate();
+            propagate();
+            subsume();
+        }
+
+        return build();
+    }
+
+    static int index(int literal)
+    {
+        return literal < 0 ? -2 * literal + 1 : 2 * literal;
+    }
+
+    private static long signature(int[] clause)
+    {
+        long signature = 0;
+        for (int literal : clause)
+        {
+            signature |= 1L << ((literal < 0 ? -literal : literal) & 63);
+        }
+        return signature;
+    }
+
+    private byte value(int literal)
+    {
+        byte value = values[literal < 0 ? -literal : literal];
+        return literal < 0 ? (byte) -value : value;
+    }
+
+    // normalizes the clause (duplicates, tautologies, fixed literals) before storing it
+    int addClause(int[] literals, int size)
+    {
+        IntVector kept = new IntVector(size);
+        boolean satisfied = false;
+
+        for (int i = 0; i < size && !satisfied; i++)
+        {
+            int literal = literals[i];
+            byte value = value(literal);
+            if (value > 0 || mark[index(-literal)])
+                satisfied = true;
+            else if (value == 0 && !mark[index(literal)])
+            {
+                mark[index(literal)] = true;
+                kept.add(literal);
+            }
+        }
+
+        for (int i = 0; i < kept.size(); i++)
+        {
+            mark[index(kept.get(i))] = false;
+        }
+
+        if (satisfied)
+            return -1;
+
+        if (kept.isEmpty())
+        {
+            unsat = true;
+            return -1;
+        }
+
+        if (kept.size() == 1)
+        {
+            units.add(kept.get(0));
+            return -1;
+        }
+
+        return store(kept.toArray());
+    }
+
+    private int store(int[] clause)
+    {
+        int id = clauses.size();
+        clauses.add(clause);
+
+        if (id == signatures.length)
+        {
+            signatures = Arrays.copyOf(signatures, id * 2);
+            queued = Arrays.copyOf(queued, id * 2);
+        }
+        signatures[id] = signature(clause);
+
+        for (int literal : clause)
+        {
+            occurrences[index(literal)].add(id);
+        }
+
+        enqueue(id);
+        return id;
+    }
+
+    private void enqueue(int id)
+    {
+        if (!queued[id])
+        {
+            queued[id] = true;
+            queue.add(id);
+        }
+    }
+
+    // occurrence lists are cleaned lazily: removed clauses and dropped literals leave stale ids
+    // behind, which occurrences(literal) purges wherever the exact list matters
+    void remove(int id)
+    {
+        clauses.set(id, null);
+        removedCount++;
+    }
+
+    private IntVector occurrences(int literal)
+    {
+        IntVector list = occurrences[index(literal)];
+        int kept = 0;
+        for (int i = 0; i < list.size(); i++)
+        {
+            int id = list.get(i);
+            if (contains(clauses.get(id), literal))
+                list.set(kept++, id);
+        }
+        list.shrink(kept);
+        return list;
+    }
+
+    private static boolean contains(int[] clause, int literal)
+    {
+        if (clause == null)
+            return false;
+
+        for (int other : clause)
+        {
+            if (other == literal)
+                return true;
+        }
+        return false;
+    }
+
+    // drops literal from the clause, which may turn it into a unit
+    private void strengthen(int id, int literal)
+    {
+        int[] clause = clauses.get(id);
+
+        if (clause.length == 2)
+        {
+            remove(id);
+            units.add(clause[0] == literal ? clause[1] : clause[0]);
+            return;
+        }
+
+        int[] strengthened = new int[clause.length - 1];
+        int k = 0;
+        for (int other : clause)
+        {
+            if (other != literal)
+                strengthened[k++] = other;
+        }
+
+        clauses.set(id, strengthened);
+        signatures[id] = signature(strengthened);
+        enqueue(id);
+    }
+
+    void propagate()
+    {
+        while (!units.isEmpty() && !unsat)
+        {
+            int literal = units.pop();
+            byte value = value(literal);
+            if (value > 0)
+                continue;
+            if (value < 0)
+            {
+                unsat = true;
+                return;
+            }
+
+            values[literal < 0 ? -literal : literal] = (byte) (literal > 0 ? 1 : -1);
+
+            IntVector satisfied = occurrences(literal);
+            for (int i = 0; i < satisfied.size(); i++)
+            {
+                remove(satisfied.get(i));
+            }
+            satisfied.clear();
+
+            IntVector falsified = occurrences(-literal);
+            for (int i = 0; i < falsified.size() && !unsat; i++)
+            {
+                strengthen(falsified.get(i), -literal);
+            }
+            falsified.clear();
+        }
+    }
+
+    // Integer.MIN_VALUE: no subsumption, 0: a subsumes b, otherwise a with that literal flipped subsumes b
+    private int subsumes(int[] a, long signatureA, int[] b, long signatureB)
+    {
+        if (a.length > b.length || (signatureA & ~signatureB) != 0)
+            return Integer.MIN_VALUE;
+
+        int result = 0;
+        for (int literal : a)
+        {
+            boolean found = false;
+            for (int other : b)
+            {
+                steps++;
+                if (literal == other)
+                {
+                    found = true;
+                    break;
+                }
+                if (result == 0 && literal == -other)
+                {
+                    result = literal;
+                    found = true;
+                    break;
+                }
+            }
+
+            if (!found)
+                return Integer.MIN_VALUE;
+        }
+
+        return result;
+    }
+
+    void subsume()
+    {
+        while (!queue.isEmpty() && !unsat && steps < STEP_LIMIT)
+        {
+            int id = queue.pop();
+            queued[id] = false;
+            propagate();
+
+            int[] clause = clauses.get(id);
+            if (clause == null)
+                continue;
+
+            // the rarest variable of the clause has the shortest candidate lists
+            int best = clause[0];
+            for (int literal : clause)
+            {
+                if (occurrences[index(literal)].size() + occurrences[index(-literal)].size()
+                        < occurrences[index(best)].size() + occurrences[index(-best)].size())
+                    best = literal;
+            }
+
+            backward(id, occurrences(best).toArray());
+            backward(id, occurrences(-best).toArray());
+        }
+    }
+
+    private void backward(int id, int[] candidates)
+    {
+        for (int other : candidates)
+        {
+            int[] clause = clauses.get(id);
+            int[] candidate = clauses.get(other);
+            if (clause == null || candidate == null || other == id)
+                continue;
+
+            int result = subsumes(clause, signatures[id], candidate, signatures[other]);
+            if (result == 0)
+                remove(other);
+            else if (result != Integer.MIN_VALUE)
+                strengthen(other, -result);
+        }
+    }
+
+    private boolean eliminate()
+    {
+        // exact sizes for the ordering below
+        for (int variable = 1; variable <= literalNumber; variable++)
+        {
+            occurrences(variable);
+            occurrences(-variable);
+        }
+
+        Integer[] order = new Integer[literalNumber];
+        for (int i = 0; i < literalNumber; i++)
+        {
+            order[i] = i + 1;
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(cost(a), cost(b)));
+
+        boolean changed = false;
+        for (int variable : order)
+        {
+            if (unsat || steps >= STEP_LIMIT)
+                break;
+
+            if (values[variable] != 0 || eliminated[variable] || frozen[variable])
+                continue;
+
+            if (eliminate(variable))
+            {
+                changed = true;
+                propagate();
+                subsume();
+            }
+        }
+
+        return changed;
+    }
+
+    private int cost(int variable)
+    {
+        return occurrences[index(variable)].size() + occurrences[index(-variable)].size();
+    }
+
+    private boolean eliminate(int variable)
+    {
+        int[] positive = occurrences(variable).toArray();
+        int[] negative = occurrences(-variable).toArray();
+
+        if (positive.length + negative.length == 0)
+            return false;
+
+        if (positive.length > 0 && negative.length > 0
+                && (positive.length > OCCURRENCE_LIMIT || negative.length > OCCURRENCE_LIMIT))
+            return false;
+
+        // the variable goes only if that doesn't grow the formula
+        List<int[]> resolvents = new ArrayList<>();
+        for (int p : positive)
+        {
+            for (int n : negative)
+            {
+                int[] resolvent = resolve(clauses.get(p), clauses.get(n), variable);
+                if (resolvent == null)
+                    continue;
+
+                if (resolvent.length > RESOLVENT_LIMIT || resolvents.size() >= positive.length + negative.length)
+                    return false;
+
+                resolvents.add(resolvent);
+            }
+        }
+
+        for (int p : positive)
+        {
+            stack.push(variable, clauses.get(p));
+            remove(p);
+        }
+        for (int n : negative)
+        {
+            stack.push(-variable, clauses.get(n));
+            remove(n);
+        }
+
+        eliminated[variable] = true;
+        eliminatedCount++;
+
+        for (int[] resolvent : resolvents)
+        {
+            addClause(resolvent, resolvent.length);
+        }
+
+        return true;
+    }
+
+    // null when the resolvent is a tautology
+    private int[] resolve(int[] positive, int[] negative, int variable)
+    {
+        IntVector resolvent = new IntVector(positive.length + negative.length);
+        boolean tautology = false;
+
+        for (int literal : positive)
+        {
+            steps++;
+            if (literal != variable)
+            {
+                mark[index(literal)] = true;
+                resolvent.add(literal);
+            }
+        }
+
+        for (int literal : negative)
+        {
+            steps++;
+            if (literal == -variable || mark[index(literal)])
+                continue;
+            if (mark[index(-literal)])
+            {
+                tautology = true;
+                break;
+            }
+            resolvent.add(literal);
+        }
+
+        for (int literal : positive)
+        {
+            mark[index(literal)] = false;
+        }
+
+        return tautology ? null : resolvent.toArray();
+    }
+
+    private Formula build()
+    {
+        Formula formula = new Formula();
+        Clause clause = new Clause();
+        int count = 0;
+
+        if (unsat)
+        {
+            formula.append(clause);
+            count++;
+        }
+
+        for (int variable = 1; variable <= literalNumber && !unsat; variable++)
+        {
+            if (values[variable] != 0)
+            {
+                clause.clear();
+                clause.add(values[variable] > 0 ? variable : -variable);
+                formula.append(clause);
+                count++;
+            }
+        }
+
+        for (int i = 0; i < clauses.size() && !unsat; i++)
+        {
+            int[] literals = clauses.get(i);
+            if (literals == null)
+                continue;
+
+            clause.clear();
+            for (int literal : literals)
+            {
+                clause.add(literal);
+            }
+            formula.append(clause);
+            count++;
+        }
+
+        formula.setLiteralNumber(literalNumber);
+        formula.setClauseNumber(count);
+        return formula;
+    }
+
+    // turns a model of the simplified formula into one of the original
+    public void extend(boolean[] model)
+    {
+        stack.extend(model);
+    }
+}
@@ -0,0 +1,271 @@
+package preprocessing;
+
+import sat.Assignment;
+import sat.ClauseArena;
+import sat.Formula;
+import util.IntVector;
+
+import java.util.Arrays;
+
+// failed literal probing and equivalent literal substitution over the binary implication graph;
+// works on the solver's own formula and assignment and must be called at decision level 0
+public class Prober
+{
+    private static final int PROPAGATION_BUDGET = 1_000_000;
+
+    private Formula formula;
+    private Assignment assignment;
+    private ReconstructionStack stack;
+    private int literalNumber;
+
+    private boolean[] frozen;
+    private IntVector[] implications;
+    private boolean[] hasIncoming;
+
+    private int failedCount;
+    private int substitutedCount;
+
+    public Prober(Formula formula, Assignment assignment, ReconstructionStack stack)
+    {
+        this.formula = formula;
+        this.assignment = assignment;
+        this.stack = stack;
+        this.literalNumber = formula.getLiteralNumber();
+        this.frozen = new boolean[literalNumber + 1];
+    }
+
+    // assumed variables have to stay in the clauses, so they are never substituted away
+    public void freeze(int variable)
+    {
+        frozen[variable] = true;
+    }
+
+    public void grow(int literalNumber)
+    {
+        this.literalNumber = literalNumber;
+        frozen = Arrays.copyOf(frozen, literalNumber + 1);
+    }
+
+    public int getFailedCount()
+    {
+        return failedCount;
+    }
+
+    public int getSubstitutedCount()
+    {
+        return substitutedCount;
+    }
+
+    // false when the formula turned out to be unsatisfiable
+    public boolean run()
+    {
+        buildGraph();
+        if (!probe())
+            return false;
+
+        buildGraph();
+        return substitute();
+    }
+
+    private static int index(int literal)
+    {
+        return literal < 0 ? -2 * literal + 1 : 2 * literal;
+    }
+
+    private static int literal(int index)
+    {
+        return (index & 1) == 0 ? index >> 1 : -(index >> 1);
+    }
+
+    private boolean precedes(int a, int b)
+    {
+        int x = Math.abs(a), y = Math.abs(b);
+        if (frozen[x] != frozen[y])
+            return frozen[x];
+        return x < y;
+    }
+
+    // binary clauses over unassigned variables: (a or b) gives -a -> b and -b -> a
+    private void buildGraph()
+    {
+        implications = new IntVector[2 * literalNumber + 2];
+        hasIncoming = new boolean[2 * literalNumber + 2];
+
+        ClauseArena arena = formula.getArena();
+        for (int ref = arena.begin(); ref < arena.end(); ref = arena.next(ref))
+        {
+            if (arena.size(ref) != 2 || arena.isDeleted(ref))
+                continue;
+
+            int a = arena.literal(ref, 0);
+            int b = arena.literal(ref, 1);
+            if (assignment.getStatus(a) != Assignment.Status.UNKNOWN || assignment.getStatus(b) != Assignment.Status.UNKNOWN)
+                continue;
+
+            implication(-a, b);
+            implication(-b, a);
+        }
+    }
+
+    private void implication(int from, int to)
+    {
+        if (implications[index(from)] == null)
+        {
+            implications[index(from)] = new IntVector();
+        }
+        implications[index(from)].add(to);
+        hasIncoming[index(to)] = true;
+    }
+
+    // only roots of the implication graph are tried, everything else is implied by some root
+    private boolean probe()
+    {
+        int budget = PROPAGATION_BUDGET;
+
+        for (int i = 2; i < implications.length && budget > 0; i++)
+        {
+            int literal = literal(i);
+            if (implications[i] == null || hasIncoming[i] || assignment.getStatus(literal) != Assignment.Status.UNKNOWN)
+                continue;
+
+            int start = assignment.size();
+            assignment.newDecisionLevel();
+            assignment.add(literal, Formula.NO_CLAUSE);
+            int conflict = formula.propagate(assignment);
+            budget -= assignment.size() - start;
+            assignment.backtrack(0);
+
+            if (conflict != Formula.NO_CLAUSE)
+            {
+                failedCount++;
+                if (formula.getProof() != null)
+                {
+                    formula.getProof().addUnit(-literal);
+                }
+                assignment.add(-literal, Formula.NO_CLAUSE);
+                if (formula.propagate(assignment) != Formula.NO_CLAUSE)
+                    return false;
+            }
+        }
+
+        return true;
+    }
+
+    // Tarjan over the implication graph; every strongly connected component is a class of equivalent literals
+    private boolean substitute()
+    {
+        int nodes = implications.length;
+        int[] discovery = new int[nodes];
+        int[] low = new int[nodes];
+        int[] component = new int[nodes];
+        int[] position = new int[nodes];
+        boolean[] onStack = new boolean[nodes];
+        int[] representative = new int[literalNumber + 1];
+        IntVector visited = new IntVector();
+        IntVector calls = new IntVector();
+        int time = 0;
+        int components = 0;
+
+        Arrays.fill(component, -1);
+        for (int variable = 1; variable <= literalNumber; variable++)
+        {
+            representative[variable] = variable;
+        }
+
+        for (int root = 2; root < nodes; root++)
+        {
+            if (discovery[root] != 0 || implications[root] == null)
+                continue;
+
+            calls.add(root);
+            while (!calls.isEmpty())
+            {
+                int node = calls.get(calls.size() - 1);
+                if (discovery[node] == 0)
+                {
+                    discovery[node] = low[node] = ++time;
+                    visited.add(node);
+                    onStack[node] = true;
+                }
+
+                IntVector edges = implications[node];
+                if (edges != null && position[node] < edges.size())
+                {
+                    int next = index(edges.get(position[node]++));
+                    if (discovery[next] == 0)
+                        calls.add(next);
+                    else if (onStack[next])
+                        low[node] = Math.min(low[node], discovery[next]);
+                    continue;
+                }
+
+                calls.pop();
+                if (!calls.isEmpty())
+                {
+                    int parent = calls.get(calls.size() - 1);
+                    low[parent] = Math.min(low[parent], low[node]);
+                }
+
+                if (low[node] != discovery[node])
+                    continue;
+
+                // the member with the smallest variable represents the class, frozen ones first,
+                // so x and -x pick mirrored representatives
+                int start = visited.size();
+                int best = node;
+                do
+                {
+                    int member = visited.get(--start);
+                    if (precedes(literal(member), literal(best)))
+                        best = member;
+                } while (visited.get(start) != node);
+
+                for (int i = start; i < visited.size(); i++)
+                {
+                    int member = visited.get(i);
+                    onStack[member] = false;
+                    component[member] = components;
+                    if (component[member ^ 1] == components)
+                    {
+                        // x and -x imply each other; each unit is RUP through the binary chains,
+                        // so the empty clause that follows is as well
+                        if (formula.getProof() != null)
+                        {
+                            formula.getProof().addUnit(-literal(member));
+                            formula.getProof().addUnit(literal(member));
+                        }
+                        return false;
+                    }
+
+                    int literal = literal(member);
+                    if (frozen[Math.abs(literal)])
+                        continue;
+                    if (literal > 0)
+                        representative[literal] = literal(best);
+                    else
+                        representative[-literal] = -literal(best);
+                }
+                visited.shrink(start);
+                components++;
+            }
+        }
+
+        int substituted = 0;
+        for (int variable = 1; variable <= literalNumber; variable++)
+        {
+            int target = representative[variable];
+            if (target != variable)
+            {
+                stack.push(variable, new int[] {variable, -target});
+                stack.push(-variable, new int[] {-variable, target});
+                substituted++;
+            }
+        }
+
+        if (substituted == 0)
+            return true;
+
+        substitutedCount += substituted;
+        return formula.substitute(representative, assignment) && formula.propagate(assignment) == Formula.NO_CLAUSE;
+    }
+}
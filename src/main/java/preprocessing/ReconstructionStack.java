@@ -0,0 +1,48 @@
+package preprocessing;
+
+import util.IntVector;
+
+// clauses removed together with the literal that must be flipped to satisfy them again
+public class ReconstructionStack
+{
+    // entries are laid out as literals..., size, witness so the stack can be walked backwards
+    private IntVector entries = new IntVector();
+
+    public void push(int witness, int[] clause)
+    {
+        for (int literal : clause)
+        {
+            entries.add(literal);
+        }
+        entries.add(clause.length);
+        entries.add(witness);
+    }
+
+    public void extend(boolean[] model)
+    {
+        int i = entries.size();
+        while (i > 0)
+        {
+            int witness = entries.get(--i);
+            int size = entries.get(--i);
+            i -= size;
+
+            boolean satisfied = false;
+            for (int j = i; j < i + size && !satisfied; j++)
+            {
+                int literal = entries.get(j);
+                satisfied = model[literal < 0 ? -literal : literal] == literal > 0;
+            }
+
+            if (!satisfied)
+            {
+                model[witness < 0 ? -witness : witness] = witness > 0;
+            }
+        }
+    }
+
+    public boolean isEmpty()
+    {
+        return entries.isEmpty();
+    }
+}
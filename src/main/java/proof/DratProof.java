@@ -0,0 +1,66 @@
+package proof;
+
+import io.AsyncWriter;
+import sat.Clause;
+import sat.ClauseArena;
+
+// binary DRAT: 'a' or 'd', the literals as LEB128 of 2|l| + (l < 0), then 0;
+// the solver only fills buffers, a background thread writes them
+public class DratProof implements AutoCloseable
+{
+    private static final byte ADD = 'a',
+                              DELETE = 'd';
+
+    private static final int BUFFER_SIZE = 1 << 22;
+
+    private AsyncWriter writer;
+
+    public DratProof(String path)
+    {
+        writer = new AsyncWriter(path, BUFFER_SIZE);
+    }
+
+    private void literal(int literal)
+    {
+        writer.putUnsigned(literal < 0 ? -2 * literal + 1 : 2 * literal);
+    }
+
+    public void add(Clause clause)
+    {
+        writer.put(ADD);
+        for (int i = 0; i < clause.size(); i++)
+        {
+            literal(clause.get(i));
+        }
+        writer.put((byte) 0);
+    }
+
+    public void addUnit(int literal)
+    {
+        writer.put(ADD);
+        literal(literal);
+        writer.put((byte) 0);
+    }
+
+    public void addEmpty()
+    {
+        writer.put(ADD);
+        writer.put((byte) 0);
+    }
+
+    public void delete(ClauseArena arena, int ref)
+    {
+        writer.put(DELETE);
+        for (int i = 0; i < arena.size(ref); i++)
+        {
+            literal(arena.literal(ref, i));
+        }
+        writer.put((byte) 0);
+    }
+
+    @Override
+    public void close()
+    {
+        writer.close();
+    }
+}
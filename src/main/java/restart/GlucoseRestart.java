@@ -0,0 +1,62 @@
+package restart;
+
+// restarts when recent learned clauses are worse than usual, unless the trail is unusually long
+public class GlucoseRestart implements RestartPolicy
+{
+    private static final double FAST = 1.0 / 32,
+                                SLOW = 1.0 / 4096,
+                                TRAIL = 1.0 / 4096;
+
+    private double margin;
+    private double blockMargin;
+    private int minimumConflicts;
+    private int blockAfter;
+
+    private double fastLBD;
+    private double slowLBD;
+    private double trailAverage;
+    private long conflicts;
+    private long sinceRestart;
+
+    public GlucoseRestart()
+    {
+        this(1.25, 1.4, 50, 10000);
+    }
+
+    public GlucoseRestart(double margin, double blockMargin, int minimumConflicts, int blockAfter)
+    {
+        this.margin = margin;
+        this.blockMargin = blockMargin;
+        this.minimumConflicts = minimumConflicts;
+        this.blockAfter = blockAfter;
+    }
+
+    @Override
+    public void conflict(int lbd, int trailSize)
+    {
+        conflicts++;
+        sinceRestart++;
+
+        // the first conflicts seed the averages instead of being damped by them
+        fastLBD += Math.max(FAST, 1.0 / conflicts) * (lbd - fastLBD);
+        slowLBD += Math.max(SLOW, 1.0 / conflicts) * (lbd - slowLBD);
+        trailAverage += Math.max(TRAIL, 1.0 / conflicts) * (trailSize - trailAverage);
+
+        if (conflicts > blockAfter && sinceRestart >= minimumConflicts && trailSize > blockMargin * trailAverage)
+        {
+            sinceRestart = 0;
+        }
+    }
+
+    @Override
+    public boolean shouldRestart()
+    {
+        return sinceRestart >= minimumConflicts && fastLBD > margin * slowLBD;
+    }
+
+    @Override
+    public void restarted()
+    {
+        sinceRestart = 0;
+    }
+}
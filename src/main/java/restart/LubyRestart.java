@@ -0,0 +1,59 @@
+package restart;
+
+public class LubyRestart implements RestartPolicy
+{
+    private int unit;
+    private int restarts;
+    private long conflicts;
+    private long limit;
+
+    public LubyRestart()
+    {
+        this(100);
+    }
+
+    public LubyRestart(int unit)
+    {
+        this.unit = unit;
+        this.limit = unit * luby(0);
+    }
+
+    // 1 1 2 1 1 2 4 1 1 2 1 1 2 4 8 ...
+    static long luby(int index)
+    {
+        int size = 1, sequence = 0;
+        while (size < index + 1)
+        {
+            sequence++;
+            size = 2 * size + 1;
+        }
+
+        while (size - 1 != index)
+        {
+            size = (size - 1) >> 1;
+            sequence--;
+            index = index % size;
+        }
+
+        return 1L << sequence;
+    }
+
+    @Override
+    public void conflict(int lbd, int trailSize)
+    {
+        conflicts++;
+    }
+
+    @Override
+    public boolean shouldRestart()
+    {
+        return conflicts >= limit;
+    }
+
+    @Override
+    public void restarted()
+    {
+        conflicts = 0;
+        limit = unit * luby(++restarts);
+    }
+}
@@ -0,0 +1,10 @@
+package restart;
+
+public interface RestartPolicy
+{
+    void conflict(int lbd, int trailSize);
+
+    boolean shouldRestart();
+
+    void restarted();
+}
@@ -2,34 +2,83 @@ package sat;
 
 import exception.FatalException;
 
-import java.util.*;
+import java.util.Arrays;
 
 public class Assignment
 {
-
-    private Map<Integer, Boolean> map = new HashMap<>();
-    private Set<Integer> unassigned = new HashSet<>();
+    private static final byte UNASSIGNED = 0,
+                              TRUE = 1,
+                              FALSE = 2;
+
+    private byte[] values;
+    private int[] trail;
+    private int trailSize;
+    private int propagated;
+    private int[] reason;
+    private int[] level;
+    private int[] trailLimits;
+    private int decisionLevel;
+    private int[] unassigned;
+    private int[] unassignedIndex;
+    private int unassignedSize;
     private int literalNumber;
     private FreqUpdater freqUpdater;
 
     public Assignment(int literalNumber)
     {
         this.literalNumber = literalNumber;
+        values = new byte[literalNumber + 1];
+        trail = new int[literalNumber];
+        reason = new int[literalNumber + 1];
+        level = new int[literalNumber + 1];
+        trailLimits = new int[literalNumber + 1];
+        unassigned = new int[literalNumber];
+        unassignedIndex = new int[literalNumber + 1];
         clear();
     }
 
+    // new variables start unassigned; the trail and everything on it stay as they are
+    public void grow(int literalNumber)
+    {
+        int old = this.literalNumber;
+        this.literalNumber = literalNumber;
+        values = Arrays.copyOf(values, literalNumber + 1);
+        trail = Arrays.copyOf(trail, literalNumber);
+        reason = Arrays.copyOf(reason, literalNumber + 1);
+        level = Arrays.copyOf(level, literalNumber + 1);
+        trailLimits = Arrays.copyOf(trailLimits, literalNumber + 1);
+        unassigned = Arrays.copyOf(unassigned, literalNumber);
+        unassignedIndex = Arrays.copyOf(unassignedIndex, literalNumber + 1);
+
+        for (int variable = old + 1; variable <= literalNumber; variable++)
+        {
+            addUnassigned(variable);
+            if (freqUpdater != null)
+            {
+                freqUpdater.add(variable);
+            }
+        }
+    }
+
     public void add(Pair pair)
     {
-        int key = pair.getKey();
-        boolean value = pair.getValue();
+        add(pair.getValue() ? pair.getKey() : -pair.getKey(), Formula.NO_CLAUSE);
+    }
+
+    public void add(int literal, int clause)
+    {
+        int key = literal < 0 ? -literal : literal;
 
-        if (map.containsKey(key))
+        if (values[key] != UNASSIGNED)
         {
             throw new FatalException("Shouldn't update the same value twice.");
         }
 
-        map.put(key, value);
-        unassigned.remove(key);
+        values[key] = literal > 0 ? TRUE : FALSE;
+        reason[key] = clause;
+        level[key] = decisionLevel;
+        trail[trailSize++] = literal;
+        removeUnassigned(key);
 
         if (freqUpdater != null)
         {
@@ -39,58 +88,146 @@ public class Assignment
 
     public int size()
     {
-        return map.size();
+        return trailSize;
     }
 
-    public Set<Integer> getUnassigned()
+    public int getTrail(int index)
     {
-        return unassigned;
+        return trail[index];
     }
 
-    public void remove(int literal)
+    public int getReason(int variable)
     {
-        literal = literal < 0 ? -literal : literal;
-        map.remove(literal);
-        unassigned.add(literal);
-        if (freqUpdater != null)
+        return reason[variable];
+    }
+
+    void relocate(ClauseArena old)
+    {
+        for (int i = 0; i < trailSize; i++)
         {
-            freqUpdater.add(literal);
+            int variable = trail[i] < 0 ? -trail[i] : trail[i];
+            if (reason[variable] != Formula.NO_CLAUSE)
+            {
+                reason[variable] = old.relocated(reason[variable]);
+            }
         }
     }
 
-    public Status getStatus(int literal)
+    public boolean hasPending()
+    {
+        return propagated < trailSize;
+    }
+
+    public int nextPending()
+    {
+        return trail[propagated++];
+    }
+
+    public int getLevel(int variable)
+    {
+        return level[variable];
+    }
+
+    public int getDecisionLevel()
     {
-        boolean negated = literal < 0;
-        literal = literal < 0 ? -literal : literal;
+        return decisionLevel;
+    }
+
+    public void newDecisionLevel()
+    {
+        trailLimits[decisionLevel++] = trailSize;
+    }
 
-        if (map.containsKey(literal))
+    public int getTrailLimit(int level)
+    {
+        return trailLimits[level];
+    }
+
+    public int getUnassignedCount()
+    {
+        return unassignedSize;
+    }
+
+    public int getUnassigned(int index)
+    {
+        return unassigned[index];
+    }
+
+    public void backtrack(int target)
+    {
+        if (decisionLevel <= target)
+        {
+            return;
+        }
+
+        int limit = trailLimits[target];
+        for (int i = trailSize - 1; i >= limit; i--)
+        {
+            int variable = trail[i] < 0 ? -trail[i] : trail[i];
+            values[variable] = UNASSIGNED;
+            addUnassigned(variable);
+            if (freqUpdater != null)
+            {
+                freqUpdater.add(variable);
+            }
+        }
+
+        trailSize = limit;
+        decisionLevel = target;
+        if (propagated > trailSize)
         {
-            Status value = map.get(literal) ? Status.TRUE : Status.FALSE;
-            return negated ? reversed(value) : value;
+            propagated = trailSize;
         }
+    }
+
+    public Status getStatus(int literal)
+    {
+        byte value = values[literal < 0 ? -literal : literal];
+
+        if (value == UNASSIGNED)
+            return Status.UNKNOWN;
 
-        return Status.UNKNOWN;
+        return (value == TRUE) == (literal > 0) ? Status.TRUE : Status.FALSE;
     }
 
-    private Status reversed(Status status)
+    private void addUnassigned(int variable)
     {
-        return status.equals(Status.TRUE) ? Status.FALSE : Status.TRUE;
+        unassignedIndex[variable] = unassignedSize;
+        unassigned[unassignedSize++] = variable;
+    }
+
+    private void removeUnassigned(int variable)
+    {
+        int index = unassignedIndex[variable];
+        int last = unassigned[--unassignedSize];
+        unassigned[index] = last;
+        unassignedIndex[last] = index;
     }
 
     @Override
     public String toString()
     {
         StringBuilder sb = new StringBuilder();
-        map.forEach((key, value) -> sb.append(key).append(" : ").append(value).append('\n'));
+        for (int i = 1; i <= literalNumber; i++)
+        {
+            if (values[i] != UNASSIGNED)
+            {
+                sb.append(i).append(" : ").append(values[i] == TRUE).append('\n');
+            }
+        }
         return sb.toString();
     }
 
     public void clear()
     {
-        map.clear();
+        trailSize = 0;
+        propagated = 0;
+        decisionLevel = 0;
+        unassignedSize = 0;
         for (int i = 1; i <= literalNumber; i++)
         {
-            unassigned.add(i);
+            values[i] = UNASSIGNED;
+            addUnassigned(i);
             if (freqUpdater != null)
             {
                 freqUpdater.add(i);
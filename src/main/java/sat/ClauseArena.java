@@ -0,0 +1,248 @@
+package sat;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+
+public class ClauseArena
+{
+    // clauses are stored back to back: [size, watchA, watchB, flags, activity, lbd, literals...]
+    static final int SIZE = 0,
+                     WATCH_A = 1,
+                     WATCH_B = 2,
+                     FLAGS = 3,
+                     ACTIVITY = 4,
+                     LBD = 5,
+                     HEADER = 6;
+
+    static final int LEARNED = 1,
+                     DELETED = 2,
+                     USED = 4,
+                     TIER_SHIFT = 3,
+                     TIER_MASK = 3 << TIER_SHIFT,
+                     VIVIFIED = 32;
+
+    public static final int CORE = 0,
+                            TIER2 = 1,
+                            LOCAL = 2;
+
+    private int[] memory;
+    private int top;
+
+    public ClauseArena()
+    {
+        this(1 << 10);
+    }
+
+    public ClauseArena(int capacity)
+    {
+        memory = new int[Math.max(capacity, HEADER)];
+    }
+
+    public int allocate(Clause clause, boolean learned)
+    {
+        int ref = header(clause.size(), learned);
+        clause.copyTo(memory, ref + HEADER);
+        return ref;
+    }
+
+    public int allocate(IntBuffer literals, int size)
+    {
+        int ref = header(size, false);
+        literals.get(memory, ref + HEADER, size);
+        return ref;
+    }
+
+    private int header(int size, boolean learned)
+    {
+        ensureCapacity(top + HEADER + size);
+
+        int ref = top;
+        memory[ref + SIZE] = size;
+        memory[ref + WATCH_A] = 0;
+        memory[ref + WATCH_B] = size > 1 ? 1 : 0;
+        memory[ref + FLAGS] = learned ? LEARNED : 0;
+        memory[ref + ACTIVITY] = Float.floatToRawIntBits(0f);
+        memory[ref + LBD] = size;
+
+        top += HEADER + size;
+        return ref;
+    }
+
+    private int copy(ClauseArena from, int ref)
+    {
+        int length = HEADER + from.memory[ref + SIZE];
+        ensureCapacity(top + length);
+        System.arraycopy(from.memory, ref, memory, top, length);
+
+        int copied = top;
+        top += length;
+        return copied;
+    }
+
+    // moves every live clause into a fresh arena; this one keeps a forwarding ref per clause
+    public ClauseArena compact()
+    {
+        ClauseArena target = new ClauseArena(top);
+        for (int ref = begin(); ref < end(); ref = next(ref))
+        {
+            int relocated = isDeleted(ref) ? -1 : target.copy(this, ref);
+            memory[ref + ACTIVITY] = relocated;
+        }
+        return target;
+    }
+
+    public int relocated(int ref)
+    {
+        return memory[ref + ACTIVITY];
+    }
+
+    public int capacity()
+    {
+        return memory.length;
+    }
+
+    public static int footprint(int clauses, int literals)
+    {
+        return clauses * HEADER + literals;
+    }
+
+    private void ensureCapacity(int capacity)
+    {
+        if (capacity <= memory.length)
+            return;
+
+        memory = Arrays.copyOf(memory, Math.max(capacity, memory.length + (memory.length >> 1)));
+    }
+
+    public int begin()
+    {
+        return 0;
+    }
+
+    public int end()
+    {
+        return top;
+    }
+
+    public int next(int ref)
+    {
+        return ref + HEADER + memory[ref + SIZE];
+    }
+
+    public int size(int ref)
+    {
+        return memory[ref + SIZE];
+    }
+
+    public int literal(int ref, int index)
+    {
+        return memory[ref + HEADER + index];
+    }
+
+    public int getWatchA(int ref)
+    {
+        return memory[ref + WATCH_A];
+    }
+
+    public int getWatchB(int ref)
+    {
+        return memory[ref + WATCH_B];
+    }
+
+    public void setWatches(int ref, int watchA, int watchB)
+    {
+        memory[ref + WATCH_A] = watchA;
+        memory[ref + WATCH_B] = watchB;
+    }
+
+    public boolean isLearned(int ref)
+    {
+        return (memory[ref + FLAGS] & LEARNED) != 0;
+    }
+
+    public boolean isDeleted(int ref)
+    {
+        return (memory[ref + FLAGS] & DELETED) != 0;
+    }
+
+    public void delete(int ref)
+    {
+        memory[ref + FLAGS] |= DELETED;
+    }
+
+    public boolean isUsed(int ref)
+    {
+        return (memory[ref + FLAGS] & USED) != 0;
+    }
+
+    public void setUsed(int ref, boolean used)
+    {
+        memory[ref + FLAGS] = used ? memory[ref + FLAGS] | USED : memory[ref + FLAGS] & ~USED;
+    }
+
+    public boolean isVivified(int ref)
+    {
+        return (memory[ref + FLAGS] & VIVIFIED) != 0;
+    }
+
+    public void setVivified(int ref)
+    {
+        memory[ref + FLAGS] |= VIVIFIED;
+    }
+
+    public int getTier(int ref)
+    {
+        return (memory[ref + FLAGS] & TIER_MASK) >> TIER_SHIFT;
+    }
+
+    public void setTier(int ref, int tier)
+    {
+        memory[ref + FLAGS] = (memory[ref + FLAGS] & ~TIER_MASK) | (tier << TIER_SHIFT);
+    }
+
+    public int getLBD(int ref)
+    {
+        return memory[ref + LBD];
+    }
+
+    public void setLBD(int ref, int lbd)
+    {
+        memory[ref + LBD] = lbd;
+    }
+
+    public float getActivity(int ref)
+    {
+        return Float.intBitsToFloat(memory[ref + ACTIVITY]);
+    }
+
+    public void setActivity(int ref, float activity)
+    {
+        memory[ref + ACTIVITY] = Float.floatToRawIntBits(activity);
+    }
+
+    public int naiveSolve(int ref, Assignment assignment)
+    {
+        int end = ref + HEADER + memory[ref + SIZE];
+        for (int i = ref + HEADER; i < end; i++)
+        {
+            Assignment.Status value = assignment.getStatus(memory[i]);
+            if (value == Assignment.Status.UNKNOWN)
+                return Clause.UNRESOLVED;
+            if (value == Assignment.Status.TRUE)
+                return Clause.SATISFIED;
+        }
+
+        return Clause.UNSATISFIED;
+    }
+
+    public String toString(int ref)
+    {
+        StringBuilder sb = new StringBuilder();
+        int end = ref + HEADER + memory[ref + SIZE];
+        for (int i = ref + HEADER; i < end; i++)
+        {
+            sb.append(memory[i]).append(' ');
+        }
+        return sb.toString();
+    }
+}
@@ -1,222 +1,622 @@
 package sat;
 
-import util.Binary;
+import proof.DratProof;
+import util.IntVector;
 
-import java.util.*;
+import java.nio.IntBuffer;
+import java.util.Arrays;
 
 public class Formula
 {
-    private List<Clause> clauses = new ArrayList<>();
-    private List<Set<Clause>> cache = new ArrayList<>(4);
-    private Map<Clause, Integer> dirty = new HashMap<>();
-    private Map<Integer, Set<Clause>> watchedByVar = new HashMap<>();
-    private Map<Integer, Set<Clause>> clauseByVar = new HashMap<>();
+    public static final int NO_CLAUSE = -1;
+
+    private static final int CORE_LBD = 2,
+                             TIER2_LBD = 6;
+
+    private static final float ACTIVITY_LIMIT = 1e20f;
+
+    private ClauseArena arena;
+    private int[][] watches = new int[0][];
+    private int[] watchCount = new int[0];
+    private int[] units = new int[4];
+    private int unitCount;
+    private int[] learned = new int[16];
+    private int learnedCount;
+    private float clauseIncrement = 1;
+    private boolean empty;
     private FreqUpdater freqUpdater;
+    private DratProof proof;
     private int clauseNumber;
     private int literalNumber;
 
     public Formula()
     {
-        cache.add(new HashSet<>());
-        cache.add(new HashSet<>());
-        cache.add(new HashSet<>());
-        cache.add(new HashSet<>());
+        this(1 << 10);
+    }
+
+    public Formula(int capacity)
+    {
+        arena = new ClauseArena(capacity);
     }
 
     public void attachFreqUpdater(FreqUpdater freqUpdater)
     {
         this.freqUpdater = freqUpdater;
-        for (Clause clause : clauses)
+        for (int ref = arena.begin(); ref < arena.end(); ref = arena.next(ref))
         {
-            for (Integer literal : clause.getLiterals())
+            for (int i = 0; i < arena.size(ref); i++)
             {
-                freqUpdater.increase(literal);
+                freqUpdater.increase(arena.literal(ref, i));
             }
         }
     }
 
-    public void append(Clause clause)
+    // from here on every learned, shortened and deleted clause goes into the proof; copies don't inherit it
+    public void attachProof(DratProof proof)
     {
-        append(clause, false);
+        this.proof = proof;
     }
 
-    public void append(Clause clause, boolean isNew)
+    public DratProof getProof()
     {
-        this.clauses.add(clause);
-        clause.makeFinal();
+        return proof;
+    }
 
-        Binary<Integer, Integer> refs = clause.getWatched();
-        watch(refs.getA(), clause);
-        watch(refs.getB(), clause);
+    public void delete(int ref)
+    {
+        if (proof != null)
+        {
+            proof.delete(arena, ref);
+        }
+        arena.delete(ref);
+    }
 
-        if (!isNew)
+    // same clauses in fresh storage; watch positions live in the arena, so every solver needs its own
+    public Formula copy()
+    {
+        Formula copy = new Formula(arena.end());
+        Clause clause = new Clause();
+
+        for (int ref = arena.begin(); ref < arena.end(); ref = arena.next(ref))
         {
-            for (Integer literal : clause.getLiterals())
+            if (arena.isDeleted(ref))
+                continue;
+
+            clause.clear();
+            for (int i = 0; i < arena.size(ref); i++)
             {
-                if (freqUpdater != null)
-                {
-                    freqUpdater.increase(literal);
-                }
+                clause.add(arena.literal(ref, i));
             }
-        }
 
-        if (clause.getLiterals().size() == 1)
-        {
-            cache.get(Clause.UNIT).add(clause);
-            dirty.put(clause, Clause.UNIT);
+            if (arena.isLearned(ref))
+                copy.learn(clause, 0, clause.size() > 1 ? 1 : 0, arena.getLBD(ref));
+            else
+                copy.append(clause);
         }
-        else
+
+        copy.setClauseNumber(clauseNumber);
+        copy.setLiteralNumber(literalNumber);
+        return copy;
+    }
+
+    public ClauseArena getArena()
+    {
+        return arena;
+    }
+
+    public int append(Clause clause)
+    {
+        return append(clause, false);
+    }
+
+    public int append(Clause clause, boolean isNew)
+    {
+        return append(clause, isNew, 0, clause.size() > 1 ? 1 : 0);
+    }
+
+    public int append(Clause clause, boolean isNew, int watchA, int watchB)
+    {
+        return attach(arena.allocate(clause, isNew), isNew, watchA, watchB);
+    }
+
+    public int append(IntBuffer literals, int size)
+    {
+        return attach(arena.allocate(literals, size), false, 0, size > 1 ? 1 : 0);
+    }
+
+    private int attach(int ref, boolean isNew, int watchA, int watchB)
+    {
+        int size = arena.size(ref);
+
+        if (!isNew && freqUpdater != null)
         {
-            if (isNew)
+            for (int i = 0; i < size; i++)
             {
-                cache.get(Clause.UNSATISFIED).add(clause);
-                dirty.put(clause, Clause.UNSATISFIED);
-                for (Integer literal : clause.getLiterals())
-                {
-                    clauseByVar.computeIfAbsent(literal < 0 ? -literal : literal, k -> new HashSet<>()).add(clause);
-                }
+                freqUpdater.increase(arena.literal(ref, i));
             }
-            else
+        }
+
+        if (size == 0)
+        {
+            empty = true;
+        }
+        else if (size == 1)
+        {
+            if (unitCount == units.length)
             {
-                cache.get(Clause.UNRESOLVED).add(clause);
-                dirty.put(clause, Clause.UNRESOLVED);
+                units = Arrays.copyOf(units, unitCount * 2);
             }
+            units[unitCount++] = ref;
         }
+        else
+        {
+            arena.setWatches(ref, watchA, watchB);
+            watch(arena.literal(ref, watchA), ref);
+            watch(arena.literal(ref, watchB), ref);
+        }
+
+        return ref;
     }
 
-    @Override
-    public String toString()
+    public int learn(Clause clause, int watchA, int watchB, int lbd)
     {
-        StringBuilder sb = new StringBuilder();
-        sb.append("Literal number: ").append(literalNumber).append('\n');
-        sb.append("Clause number: ").append(clauseNumber).append('\n');
-        sb.append("Clauses: ").append('\n');
-        clauses.forEach((clause) -> sb.append(clause.toString()).append('\n'));
-        return sb.toString();
+        int ref = append(clause, true, watchA, watchB);
+        if (proof != null)
+        {
+            proof.add(clause);
+        }
+        arena.setLBD(ref, lbd);
+        arena.setTier(ref, tierOf(lbd));
+
+        if (learnedCount == learned.length)
+        {
+            learned = Arrays.copyOf(learned, learnedCount * 2);
+        }
+        learned[learnedCount++] = ref;
+
+        return ref;
     }
 
-    public void setClauseNumber(int clauseNumber)
+    private static int tierOf(int lbd)
     {
-        this.clauseNumber = clauseNumber;
+        if (lbd <= CORE_LBD)
+            return ClauseArena.CORE;
+        return lbd <= TIER2_LBD ? ClauseArena.TIER2 : ClauseArena.LOCAL;
     }
 
-    public void setLiteralNumber(int literalNumber)
+    public int getLearnedCount()
     {
-        this.literalNumber = literalNumber;
+        return learnedCount;
     }
 
-    public int getLiteralNumber()
+    public int getLearned(int index)
     {
-        return literalNumber;
+        return learned[index];
     }
 
-    public Unit getUnit()
+    // called for every learned clause taking part in a conflict
+    public void used(int ref, int lbd)
     {
-        if (cache.get(Clause.UNIT).isEmpty())
-            return null;
+        arena.setUsed(ref, true);
+        if (lbd < arena.getLBD(ref))
+        {
+            arena.setLBD(ref, lbd);
+            arena.setTier(ref, Math.min(arena.getTier(ref), tierOf(lbd)));
+        }
 
-        Clause u = cache.get(Clause.UNIT).iterator().next();
-        return new Unit(u.getUnit(), u);
+        float activity = arena.getActivity(ref) + clauseIncrement;
+        arena.setActivity(ref, activity);
+        if (activity > ACTIVITY_LIMIT)
+        {
+            for (int i = 0; i < learnedCount; i++)
+            {
+                arena.setActivity(learned[i], arena.getActivity(learned[i]) / ACTIVITY_LIMIT);
+            }
+            clauseIncrement /= ACTIVITY_LIMIT;
+        }
     }
 
-    public boolean hasConflict()
+    public void decayClauses(float decay)
     {
-        return !cache.get(Clause.UNSATISFIED).isEmpty();
+        clauseIncrement /= decay;
     }
 
-    public void undo(Integer literal, Assignment assignment)
+    // drops the less active half of the local tier, demotes idle tier2 clauses, then compacts the arena
+    public void reduce(Assignment assignment)
     {
-        Set<Clause> clauses = clauseByVar.get(literal < 0 ? -literal : literal);
+        long[] candidates = new long[learnedCount];
+        int candidateCount = 0;
+
+        for (int i = 0; i < learnedCount; i++)
+        {
+            int ref = learned[i];
+            if (arena.getTier(ref) == ClauseArena.TIER2 && !arena.isUsed(ref))
+            {
+                arena.setTier(ref, ClauseArena.LOCAL);
+            }
+            else if (arena.getTier(ref) == ClauseArena.LOCAL && !isLocked(ref, assignment))
+            {
+                // non-negative float bits keep their order when compared as ints
+                candidates[candidateCount++] = ((long) Float.floatToRawIntBits(arena.getActivity(ref)) << 32) | i;
+            }
+            arena.setUsed(ref, false);
+        }
 
-        if (clauses == null)
+        Arrays.sort(candidates, 0, candidateCount);
+        for (int i = 0; i < candidateCount / 2; i++)
         {
-            return;
+            delete(learned[(int) candidates[i]]);
         }
 
-        update(clauses, assignment);
+        compact(assignment);
     }
 
-    public void notify(Integer literal, Assignment assignment)
+    private boolean isLocked(int ref, Assignment assignment)
     {
-        Set<Clause> watched = watchedByVar.get(literal < 0 ? -literal : literal);
+        return isReason(arena.literal(ref, arena.getWatchA(ref)), ref, assignment)
+                || isReason(arena.literal(ref, arena.getWatchB(ref)), ref, assignment);
+    }
 
-        if (watched == null)
+    private boolean isReason(int literal, int ref, Assignment assignment)
+    {
+        return assignment.getStatus(literal) == Assignment.Status.TRUE
+                && assignment.getReason(literal < 0 ? -literal : literal) == ref;
+    }
+
+    public void compact(Assignment assignment)
+    {
+        ClauseArena old = arena;
+        arena = old.compact();
+        assignment.relocate(old);
+
+        for (int i = 0; i < unitCount; i++)
         {
-            return;
+            units[i] = old.relocated(units[i]);
+        }
+
+        int kept = 0;
+        for (int i = 0; i < learnedCount; i++)
+        {
+            int ref = old.relocated(learned[i]);
+            if (ref != NO_CLAUSE)
+            {
+                learned[kept++] = ref;
+            }
         }
+        learnedCount = kept;
 
-        update(watched, assignment);
+        Arrays.fill(watchCount, 0);
+        for (int ref = arena.begin(); ref < arena.end(); ref = arena.next(ref))
+        {
+            if (arena.size(ref) > 1)
+            {
+                watch(arena.literal(ref, arena.getWatchA(ref)), ref);
+                watch(arena.literal(ref, arena.getWatchB(ref)), ref);
+            }
+        }
     }
 
-    private void update(Set<Clause> clauses, Assignment assignment)
+    // rewrites every clause over the representatives of its variables; only valid at decision level 0
+    public boolean substitute(int[] representative, Assignment assignment)
     {
-        new ArrayList<>(clauses).forEach((clause) -> {
+        Clause clause = new Clause();
+        IntVector removed = new IntVector();
+        int end = arena.end();
+
+        for (int ref = arena.begin(); ref < end; ref = arena.next(ref))
+        {
+            if (arena.isDeleted(ref) || !mentions(ref, representative))
+                continue;
+
+            arena.delete(ref);
+            removed.add(ref);
+            if (!rewrite(ref, representative, assignment, clause))
+                continue;
 
-            int oldStatus = dirty.get(clause);
+            if (clause.size() == 0)
+            {
+                empty = true;
+                return false;
+            }
+
+            addShortened(ref, clause, assignment);
+        }
+
+        // the rewritten clauses follow from the equivalences, so the old ones leave the proof only at the end
+        for (int i = 0; proof != null && i < removed.size(); i++)
+        {
+            proof.delete(arena, removed.get(i));
+        }
+
+        compact(assignment);
+        return true;
+    }
+
+    // adds a clause learned elsewhere at decision level 0; false when it is already falsified there
+    public boolean learn(Clause clause, int lbd, Assignment assignment)
+    {
+        return add(clause, true, lbd, assignment);
+    }
 
-            Binary<Integer, Integer> olds = clause.getWatched();
-            int status = clause.notify(assignment);
-            Binary<Integer, Integer> news = clause.getWatched();
+    // adds an input clause between solves, at decision level 0; false when it is already falsified there
+    public boolean append(Clause clause, Assignment assignment)
+    {
+        return add(clause, false, 0, assignment);
+    }
 
-            if (!olds.getA().equals(news.getA()) || !olds.getA().equals(news.getB()))
+    private boolean add(Clause literals, boolean isLearned, int lbd, Assignment assignment)
+    {
+        Clause clause = new Clause();
+        for (int i = 0; i < literals.size(); i++)
+        {
+            int literal = literals.get(i);
+            Assignment.Status status = assignment.getStatus(literal);
+            if (status == Assignment.Status.TRUE)
+                return true;
+            if (status == Assignment.Status.FALSE)
+                continue;
+
+            boolean duplicate = false;
+            for (int j = 0; j < clause.size(); j++)
             {
-                unwatch(olds.getA(), clause);
-                if (!olds.getA().equals(olds.getB()))
-                    unwatch(olds.getB(), clause);
+                if (clause.get(j) == -literal)
+                    return true;
+                duplicate |= clause.get(j) == literal;
+            }
+
+            if (!duplicate)
+                clause.add(literal);
+        }
+
+        if (clause.size() == 0)
+            return false;
+
+        int ref;
+        if (isLearned)
+        {
+            ref = learn(clause, 0, clause.size() > 1 ? 1 : 0, Math.min(lbd, clause.size()));
+        }
+        else
+        {
+            ref = append(clause);
+            clauseNumber++;
+        }
 
-                watch(news.getA(), clause);
-                if (!news.getA().equals(news.getB()))
-                    watch(news.getB(), clause);
+        if (clause.size() == 1)
+        {
+            assignment.add(clause.get(0), ref);
+        }
+        return true;
+    }
+
+    // swaps the clause for a shorter one over unassigned literals; the old copy goes away on the next compaction
+    public int replace(int ref, Clause clause, Assignment assignment)
+    {
+        int copy = addShortened(ref, clause, assignment);
+        delete(ref);
+        return copy;
+    }
+
+    // the shorter copy of ref, which is left alone
+    private int addShortened(int ref, Clause clause, Assignment assignment)
+    {
+        int copy;
+        if (arena.isLearned(ref))
+        {
+            copy = learn(clause, 0, clause.size() > 1 ? 1 : 0, Math.min(arena.getLBD(ref), clause.size()));
+            arena.setActivity(copy, arena.getActivity(ref));
+        }
+        else
+        {
+            copy = append(clause);
+            if (proof != null)
+            {
+                proof.add(clause);
             }
+        }
+
+        if (clause.size() == 1)
+        {
+            assignment.add(clause.get(0), copy);
+        }
+
+        return copy;
+    }
+
+    private boolean mentions(int ref, int[] representative)
+    {
+        for (int i = 0; i < arena.size(ref); i++)
+        {
+            int variable = Math.abs(arena.literal(ref, i));
+            if (representative[variable] != variable)
+                return true;
+        }
+        return false;
+    }
+
+    // false when the rewritten clause is satisfied or a tautology
+    private boolean rewrite(int ref, int[] representative, Assignment assignment, Clause clause)
+    {
+        clause.clear();
+        for (int i = 0; i < arena.size(ref); i++)
+        {
+            int literal = arena.literal(ref, i);
+            int mapped = literal < 0 ? -representative[-literal] : representative[literal];
 
-            if (status != oldStatus)
+            Assignment.Status status = assignment.getStatus(mapped);
+            if (status == Assignment.Status.TRUE)
+                return false;
+            if (status == Assignment.Status.FALSE)
+                continue;
+
+            boolean duplicate = false;
+            for (int j = 0; j < clause.size(); j++)
             {
-                cache.get(oldStatus).remove(clause);
-                cache.get(status).add(clause);
-                dirty.put(clause, status);
+                if (clause.get(j) == -mapped)
+                    return false;
+                duplicate |= clause.get(j) == mapped;
             }
 
-            if (!isUnitOrUnsatisfied(oldStatus) && isUnitOrUnsatisfied(status))
+            if (!duplicate)
+                clause.add(mapped);
+        }
+        return true;
+    }
+
+    @Override
+    public String toString()
+    {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Literal number: ").append(literalNumber).append('\n');
+        sb.append("Clause number: ").append(clauseNumber).append('\n');
+        sb.append("Clauses: ").append('\n');
+        for (int ref = arena.begin(); ref < arena.end(); ref = arena.next(ref))
+        {
+            sb.append(arena.toString(ref)).append('\n');
+        }
+        return sb.toString();
+    }
+
+    public void setClauseNumber(int clauseNumber)
+    {
+        this.clauseNumber = clauseNumber;
+    }
+
+    public int getClauseNumber()
+    {
+        return clauseNumber;
+    }
+
+    public void setLiteralNumber(int literalNumber)
+    {
+        this.literalNumber = literalNumber;
+    }
+
+    public int getLiteralNumber()
+    {
+        return literalNumber;
+    }
+
+    public boolean hasEmptyClause()
+    {
+        return empty;
+    }
+
+    public int assertUnits(Assignment assignment)
+    {
+        for (int i = 0; i < unitCount; i++)
+        {
+            int literal = arena.literal(units[i], 0);
+            Assignment.Status status = assignment.getStatus(literal);
+            if (status == Assignment.Status.FALSE)
+                return units[i];
+            if (status == Assignment.Status.UNKNOWN)
+                assignment.add(literal, units[i]);
+        }
+
+        return NO_CLAUSE;
+    }
+
+    public int propagate(Assignment assignment)
+    {
+        while (assignment.hasPending())
+        {
+            int falseLiteral = -assignment.nextPending();
+            int index = index(falseLiteral);
+            if (index >= watches.length)
+                continue;
+
+            int[] watched = watches[index];
+            int count = watchCount[index];
+            int i = 0, j = 0;
+
+            while (i < count)
             {
-                for (Integer literal : clause.getLiterals())
+                int ref = watched[i++];
+                int watchA = arena.getWatchA(ref);
+                int watchB = arena.getWatchB(ref);
+
+                // watchA is the one that just became false
+                if (arena.literal(ref, watchA) != falseLiteral)
                 {
-                    clauseByVar.computeIfAbsent(literal < 0 ? -literal : literal, k -> new HashSet<>()).add(clause);
+                    int aux = watchA;
+                    watchA = watchB;
+                    watchB = aux;
                 }
-            }
 
-            if (isUnitOrUnsatisfied(oldStatus) && !isUnitOrUnsatisfied(status))
-            {
-                for (Integer literal : clause.getLiterals())
+                int other = arena.literal(ref, watchB);
+                Assignment.Status otherStatus = assignment.getStatus(other);
+                if (otherStatus == Assignment.Status.TRUE)
+                {
+                    watched[j++] = ref;
+                    continue;
+                }
+
+                int replacement = findReplacement(ref, watchA, watchB, assignment);
+                if (replacement != -1)
+                {
+                    arena.setWatches(ref, replacement, watchB);
+                    watch(arena.literal(ref, replacement), ref);
+                    continue;
+                }
+
+                watched[j++] = ref;
+                if (otherStatus == Assignment.Status.FALSE)
                 {
-                    clauseByVar.computeIfAbsent(literal < 0 ? -literal : literal, k -> new HashSet<>()).remove(clause);
+                    while (i < count)
+                    {
+                        watched[j++] = watched[i++];
+                    }
+                    watchCount[index] = j;
+                    return ref;
                 }
+
+                assignment.add(other, ref);
             }
 
-        });
+            watchCount[index] = j;
+        }
 
+        return NO_CLAUSE;
     }
 
-    private boolean isUnitOrUnsatisfied(int status)
+    private int findReplacement(int ref, int watchA, int watchB, Assignment assignment)
     {
-        return status == Clause.UNIT || status == Clause.UNSATISFIED;
+        int size = arena.size(ref);
+        for (int k = 0; k < size; k++)
+        {
+            if (k != watchA && k != watchB && assignment.getStatus(arena.literal(ref, k)) != Assignment.Status.FALSE)
+                return k;
+        }
+        return -1;
     }
 
-    private void watch(int literal, Clause clause)
+    private static int index(int literal)
     {
-        watchedByVar.computeIfAbsent(literal < 0 ? -literal : literal, k -> new HashSet<>()).add(clause);
+        return literal < 0 ? -2 * literal + 1 : 2 * literal;
     }
 
-    private void unwatch(int literal, Clause clause)
+    private void watch(int literal, int clause)
     {
-        watchedByVar.computeIfAbsent(literal < 0 ? -literal : literal, k -> new HashSet<>()).remove(clause);
-    }
+        int index = index(literal);
+        if (index >= watches.length)
+        {
+            int length = Math.max(index + 1, watches.length * 2);
+            watches = Arrays.copyOf(watches, length);
+            watchCount = Arrays.copyOf(watchCount, length);
+        }
 
-    public Clause getConflict()
-    {
-        if (cache.get(Clause.UNSATISFIED).isEmpty())
-            return null;
+        int[] watched = watches[index];
+        if (watched == null)
+        {
+            watched = watches[index] = new int[4];
+        }
+        else if (watchCount[index] == watched.length)
+        {
+            watched = watches[index] = Arrays.copyOf(watched, watched.length * 2);
+        }
 
-        return cache.get(Clause.UNSATISFIED).iterator().next();
+        watched[watchCount[index]++] = clause;
     }
 
     public boolean check(Assignment assignment)
@@ -224,9 +624,9 @@ public class Formula
         if (assignment.size() != literalNumber)
             return false;
 
-        for (Clause clause : clauses)
+        for (int ref = arena.begin(); ref < arena.end(); ref = arena.next(ref))
         {
-            if (clause.naiveSolve(assignment) != Clause.SATISFIED)
+            if (arena.naiveSolve(ref, assignment) != Clause.SATISFIED)
                 return false;
         }
 
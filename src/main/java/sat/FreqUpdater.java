@@ -50,7 +50,7 @@ public class FreqUpdater
 
     private void addLiteral(int key)
     {
-        int newFreq = defaults.get(key);
+        int newFreq = defaults.getOrDefault(key, 0);
         freqs.put(key, newFreq);
         invFreqs.computeIfAbsent(newFreq, k -> new HashSet<>()).add(key);
     }
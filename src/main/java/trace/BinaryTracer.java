@@ -0,0 +1,84 @@
+package trace;
+
+import io.AsyncWriter;
+import sat.Clause;
+
+// one tag byte per event followed by its fields as LEB128; a literal l is written as 2|l| + (l < 0),
+// a reason as ref + 1 so that no reason is 0
+public class BinaryTracer implements Tracer
+{
+    static final int MAGIC = 0x54524143;
+
+    static final byte DECISION = 'd',
+                      PROPAGATED = 'u',
+                      LEARNED = 'l',
+                      BACKTRACKED = 'b',
+                      RESTARTED = 'r';
+
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private AsyncWriter writer;
+
+    public BinaryTracer(String path)
+    {
+        writer = new AsyncWriter(path, BUFFER_SIZE);
+        writer.putUnsigned(MAGIC);
+    }
+
+    static int encode(int literal)
+    {
+        return literal < 0 ? -2 * literal + 1 : 2 * literal;
+    }
+
+    static int decode(int code)
+    {
+        return (code & 1) == 0 ? code >>> 1 : -(code >>> 1);
+    }
+
+    @Override
+    public void decision(int literal, int level)
+    {
+        writer.put(DECISION);
+        writer.putUnsigned(encode(literal));
+        writer.putUnsigned(level);
+    }
+
+    @Override
+    public void propagated(int literal, int reason)
+    {
+        writer.put(PROPAGATED);
+        writer.putUnsigned(encode(literal));
+        writer.putUnsigned(reason + 1);
+    }
+
+    @Override
+    public void learned(Clause clause, int lbd)
+    {
+        writer.put(LEARNED);
+        writer.putUnsigned(lbd);
+        writer.putUnsigned(clause.size());
+        for (int i = 0; i < clause.size(); i++)
+        {
+            writer.putUnsigned(encode(clause.get(i)));
+        }
+    }
+
+    @Override
+    public void backtracked(int level)
+    {
+        writer.put(BACKTRACKED);
+        writer.putUnsigned(level);
+    }
+
+    @Override
+    public void restarted()
+    {
+        writer.put(RESTARTED);
+    }
+
+    @Override
+    public void close()
+    {
+        writer.close();
+    }
+}
@@ -0,0 +1,51 @@
+package trace;
+
+import sat.Clause;
+
+import java.io.PrintStream;
+
+public class TextTracer implements Tracer
+{
+    private PrintStream out;
+
+    public TextTracer(PrintStream out)
+    {
+        this.out = out;
+    }
+
+    @Override
+    public void decision(int literal, int level)
+    {
+        out.println("Decision: " + literal + " at level " + level);
+    }
+
+    @Override
+    public void propagated(int literal, int reason)
+    {
+        out.println("Unit: " + literal + " from #" + reason);
+    }
+
+    @Override
+    public void learned(Clause clause, int lbd)
+    {
+        out.println("Learned new clause: " + clause + " lbd " + lbd);
+    }
+
+    @Override
+    public void backtracked(int level)
+    {
+        out.println("Backtrack to level " + level);
+    }
+
+    @Override
+    public void restarted()
+    {
+        out.println("Restart");
+    }
+
+    @Override
+    public void close()
+    {
+        out.flush();
+    }
+}
@@ -0,0 +1,100 @@
+package trace;
+
+import exception.FatalException;
+import sat.Clause;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+// replays a binary trace into another tracer; run on its own it prints the trace as text
+public class TraceReader
+{
+    private String url;
+
+    public TraceReader(String url)
+    {
+        this.url = url;
+    }
+
+    public static void main(String[] args)
+    {
+        if (args.length != 1)
+        {
+            throw new FatalException("Usage: TraceReader trace");
+        }
+
+        try (Tracer tracer = new TextTracer(System.out))
+        {
+            new TraceReader(args[0]).replay(tracer);
+        }
+    }
+
+    public void replay(Tracer tracer)
+    {
+        Clause clause = new Clause();
+        try (InputStream in = new BufferedInputStream(new FileInputStream(url), 1 << 16))
+        {
+            if (readUnsigned(in) != BinaryTracer.MAGIC)
+            {
+                throw new FatalException(url + " is not a trace.");
+            }
+
+            for (int tag = in.read(); tag != -1; tag = in.read())
+            {
+                switch (tag)
+                {
+                    case BinaryTracer.DECISION:
+                        tracer.decision(BinaryTracer.decode(readUnsigned(in)), readUnsigned(in));
+                        break;
+                    case BinaryTracer.PROPAGATED:
+                        tracer.propagated(BinaryTracer.decode(readUnsigned(in)), readUnsigned(in) - 1);
+                        break;
+                    case BinaryTracer.LEARNED:
+                        int lbd = readUnsigned(in);
+                        int size = readUnsigned(in);
+                        clause.clear();
+                        for (int i = 0; i < size; i++)
+                        {
+                            clause.add(BinaryTracer.decode(readUnsigned(in)));
+                        }
+                        tracer.learned(clause, lbd);
+                        break;
+                    case BinaryTracer.BACKTRACKED:
+                        tracer.backtracked(readUnsigned(in));
+                        break;
+                    case BinaryTracer.RESTARTED:
+                        tracer.restarted();
+                        break;
+                    default:
+                        throw new FatalException("Corrupt trace: unknown event " + tag + ".");
+                }
+            }
+        }
+        catch (EOFException e)
+        {
+            throw new FatalException("Trace ends in the middle of an event.", e);
+        }
+        catch (IOException e)
+        {
+            throw new FatalException("Can't read trace.", e);
+        }
+    }
+
+    private static int readUnsigned(InputStream in) throws IOException
+    {
+        int value = 0;
+        for (int shift = 0; ; shift += 7)
+        {
+            int b = in.read();
+            if (b == -1)
+                throw new EOFException();
+
+            value |= (b & 0x7f) << shift;
+            if ((b & 0x80) == 0)
+                return value;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package trace;
+
+import sat.Clause;
+
+// search events; the solver holds a null tracer when tracing is off, so nothing is built or called
+public interface Tracer extends AutoCloseable
+{
+    void decision(int literal, int level);
+
+    // reason is Formula.NO_CLAUSE for assumptions
+    void propagated(int literal, int reason);
+
+    void learned(Clause clause, int lbd);
+
+    void backtracked(int level);
+
+    void restarted();
+
+    @Override
+    void close();
+}
@@ -0,0 +1,123 @@
+package util;
+
+import java.util.Arrays;
+
+// binary max-heap over the indices 1..n, ordered by an external key array
+public class IndexedHeap
+{
+    private double[] keys;
+    private int[] heap;
+    private int[] position;
+    private int size;
+
+    public IndexedHeap(double[] keys)
+    {
+        this.keys = keys;
+        heap = new int[keys.length];
+        position = new int[keys.length];
+        Arrays.fill(position, -1);
+    }
+
+    // the key array was reallocated for more indices; the new ones start outside the heap
+    public void grow(double[] keys)
+    {
+        int old = position.length;
+        this.keys = keys;
+        heap = Arrays.copyOf(heap, keys.length);
+        position = Arrays.copyOf(position, keys.length);
+        Arrays.fill(position, old, keys.length, -1);
+    }
+
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    public boolean contains(int index)
+    {
+        return position[index] != -1;
+    }
+
+    public void insert(int index)
+    {
+        if (contains(index))
+            return;
+
+        heap[size] = index;
+        position[index] = size;
+        siftUp(size++);
+    }
+
+    public int removeMax()
+    {
+        int max = heap[0];
+        int last = heap[--size];
+        position[max] = -1;
+
+        if (size > 0)
+        {
+            heap[0] = last;
+            position[last] = 0;
+            siftDown(0);
+        }
+
+        return max;
+    }
+
+    public void increased(int index)
+    {
+        if (contains(index))
+            siftUp(position[index]);
+    }
+
+    private void siftUp(int i)
+    {
+        int index = heap[i];
+        double key = keys[index];
+
+        while (i > 0)
+        {
+            int parent = (i - 1) >> 1;
+            if (keys[heap[parent]] >= key)
+                break;
+
+            heap[i] = heap[parent];
+            position[heap[i]] = i;
+            i = parent;
+        }
+
+        heap[i] = index;
+        position[index] = i;
+    }
+
+    private void siftDown(int i)
+    {
+        int index = heap[i];
+        double key = keys[index];
+
+        while (true)
+        {
+            int child = 2 * i + 1;
+            if (child >= size)
+                break;
+
+            if (child + 1 < size && keys[heap[child + 1]] > keys[heap[child]])
+                child++;
+
+            if (keys[heap[child]] <= key)
+                break;
+
+            heap[i] = heap[child];
+            position[heap[i]] = i;
+            i = child;
+        }
+
+        heap[i] = index;
+        position[index] = i;
+    }
+}
@@ -0,0 +1,68 @@
+package util;
+
+import java.util.Arrays;
+
+public class IntVector
+{
+    private int[] data;
+    private int size;
+
+    public IntVector()
+    {
+        this(4);
+    }
+
+    public IntVector(int capacity)
+    {
+        data = new int[Math.max(capacity, 1)];
+    }
+
+    public void add(int value)
+    {
+        if (size == data.length)
+        {
+            data = Arrays.copyOf(data, size * 2);
+        }
+        data[size++] = value;
+    }
+
+    public int get(int index)
+    {
+        return data[index];
+    }
+
+    public void set(int index, int value)
+    {
+        data[index] = value;
+    }
+
+    public int pop()
+    {
+        return data[--size];
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    public boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    public void clear()
+    {
+        size = 0;
+    }
+
+    public void shrink(int size)
+    {
+        this.size = size;
+    }
+
+    public int[] toArray()
+    {
+        return Arrays.copyOf(data, size);
+    }
+}